@@ -0,0 +1,142 @@
+package cologne.eck.dr.op.crypto.digest;
+
+/*
+ * 1-Round-reduced Version of Hash Function Blake2s
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+/*  The 32-bit counterpart of Blake2b_1 for Catena's H':
+    two inputs of 32 bytes form one block of Blake2s,
+    the block is processed by a single round of the
+    compression function, the round is given by the
+    vertex index modulo 10. Like Blake2b_1, the chain value
+    and the counter are kept between two calls of hash()
+    until reset() is called.
+*/
+
+import java.util.Arrays;
+
+public class Blake2s_1 implements FastHash {
+
+	// IV[0] XOR parameter block: digest length 32, fanout 1, depth 1
+	private final static int blake2s_IV0 = 0x6b08e647;
+
+	private final static int BLOCK_LENGTH_BYTES = 64;// bytes
+	private final static int H_LEN = 32;
+
+	private int[] internalState = new int[16]; // In the Blake2s paper it is called: v
+	private int[] chainValue = new int[8]; // state vector, in the Blake2s paper it is called: h
+	private int[] m = new int[16]; // message words
+
+	private int t0 = 0; // holds last significant bits, counter (counts bytes)
+	private int t1 = 0; // counter: Length up to 2^64 are supported
+
+	public Blake2s_1() {
+		init();
+	}
+
+	// initialize chainValue
+	private void init() {
+		System.arraycopy(Blake2s.blake2s_IV, 0, chainValue, 0, 8);
+		chainValue[0] = blake2s_IV0;
+	}
+
+	@Override
+	public void hash(int vIndex, byte[] input1, int inIndex1, byte[] input2,
+			int inIndex2, byte[] hash, int outIndex) {
+
+		// read the message words in place:
+		for (int j = 0; j < 8; j++) {
+			m[j] = Blake2s.bytes2int(input1, inIndex1 + j*4);
+			m[j + 8] = Blake2s.bytes2int(input2, inIndex2 + j*4);
+		}
+		t0 += BLOCK_LENGTH_BYTES;
+		// simplified because increment is always 64
+		if (t0 == 0) {
+			t1++;
+		}
+		compress(vIndex % 10);
+
+		for (int i = 0; i < H_LEN; i++) {
+			hash[outIndex + i] = (byte) (chainValue[i >>> 2] >>> ((i & 3) << 3));
+		}
+	}
+
+	private void compress(int round) {
+
+		// initialize v:
+		System.arraycopy(chainValue, 0, internalState, 0, 8);
+		System.arraycopy(Blake2s.blake2s_IV, 0, internalState, 8, 4);
+		internalState[12] = t0 ^ Blake2s.blake2s_IV[4];
+		internalState[13] = t1 ^ Blake2s.blake2s_IV[5];
+		internalState[14] = 0xFFFFFFFF ^ Blake2s.blake2s_IV[6];
+		internalState[15] = Blake2s.blake2s_IV[7];
+
+		byte[] sigma = Blake2s.blake2s_sigma[round];
+		// single round: Catenas H'
+		// G apply to columns of internalState:
+	    G(m[sigma[0]], m[sigma[1]], 0,4,8,12);
+	    G(m[sigma[2]], m[sigma[3]], 1,5,9,13);
+	    G(m[sigma[4]], m[sigma[5]], 2,6,10,14);
+	    G(m[sigma[6]], m[sigma[7]], 3,7,11,15);
+	    // G apply to diagonals of internalState:
+	    G(m[sigma[8]], m[sigma[9]], 0,5,10,15);
+	    G(m[sigma[10]], m[sigma[11]], 1,6,11,12);
+	    G(m[sigma[12]], m[sigma[13]], 2,7,8,13);
+	    G(m[sigma[14]], m[sigma[15]], 3,4,9,14);
+
+		// update chain values:
+		for( int offset = 0; offset < 8; offset++ ) {
+			chainValue[offset] = chainValue[offset] ^ internalState[offset] ^ internalState[offset + 8];
+		}
+	}
+
+	private void G(int m1, int m2, int posA, int posB, int posC, int posD) {
+
+		internalState[posA] = internalState[posA] + internalState[posB] + m1;
+	    internalState[posD] = Integer.rotateRight(internalState[posD] ^ internalState[posA], 16);
+	    internalState[posC] = internalState[posC] + internalState[posD];
+	    internalState[posB] = Integer.rotateRight(internalState[posB] ^ internalState[posC], 12);
+	    internalState[posA] = internalState[posA] + internalState[posB] + m2;
+	    internalState[posD] = Integer.rotateRight(internalState[posD] ^ internalState[posA], 8);
+	    internalState[posC] = internalState[posC] + internalState[posD];
+	    internalState[posB] = Integer.rotateRight(internalState[posB] ^ internalState[posC], 7);
+	}
+
+	/**
+	 * Reset the hash function to use again after doFinal().
+	 */
+	@Override
+	public void reset() {
+		t0 = 0;
+		t1 = 0;
+		Arrays.fill(internalState, 0);
+		Arrays.fill(m, 0);
+		init();
+	}
+
+	@Override
+	public String getName() {
+		return "Blake2s_1";
+	}
+
+	@Override
+	public int getOutputSize() {
+		return H_LEN;
+	}
+}
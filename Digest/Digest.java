@@ -1,5 +1,7 @@
 package cologne.eck.dr.op.crypto.digest;
 
+import java.nio.ByteBuffer;
+
 
 public interface Digest {
 	
@@ -9,9 +11,105 @@ public interface Digest {
 	
 	public void update(byte[] message, int offset, int len);
 	
+	/**
+	 * Processes the remaining bytes of the buffer, 
+	 * the position of the buffer is set to the limit. 
+	 * Direct buffers are copied in chunks, implementations 
+	 * can override this to read the buffer in place.
+	 * 
+	 * @param input		heap or direct buffer
+	 */
+	public default void update(ByteBuffer input) {
+		
+		if (input.hasArray()) {
+			update(input.array(), input.arrayOffset() + input.position(), input.remaining());
+			input.position(input.limit());
+		} else {
+			byte[] chunk = new byte[Math.min(input.remaining(), 4096)];
+			while (input.hasRemaining()) {
+				int len = Math.min(input.remaining(), chunk.length);
+				input.get(chunk, 0, len);
+				update(chunk, 0, len);
+			}
+		}
+	}
+	
 	public void doFinal(byte[] out, int outOffset);
 	
 	public void reset();
-	
+
+	/**
+	 * Computes the hash value of the concatenated segments
+	 * in one call: processes the segments by update(),
+	 * calls doFinal() and reset(). Implementations
+	 * can override this to avoid intermediate copies.
+	 * The output may overlap the segments.
+	 *
+	 * @param out		the hash value (getOutputSize() bytes) will be copied in this array
+	 * @param outOffset	start position of the array out
+	 * @param parts		the input segments
+	 */
+	public default void hash(byte[] out, int outOffset, Segment... parts) {
+
+		for (Segment part : parts) {
+			if (part.length > 0) {
+				update(part.array, part.offset, part.length);
+			}
+		}
+		doFinal(out, outOffset);
+		reset();
+	}
+
+	/**
+	 * Same as hash(out, outOffset, parts) for two segments, 
+	 * without the allocation of the varargs array
+	 *
+	 * @param out		the hash value (getOutputSize() bytes) will be copied in this array
+	 * @param outOffset	start position of the array out
+	 * @param part1		the first input segment
+	 * @param part2		the second input segment
+	 */
+	public default void hash(byte[] out, int outOffset, Segment part1, Segment part2) {
+
+		if (part1.length > 0) {
+			update(part1.array, part1.offset, part1.length);
+		}
+		if (part2.length > 0) {
+			update(part2.array, part2.offset, part2.length);
+		}
+		doFinal(out, outOffset);
+		reset();
+	}
+
+	/**
+	 * Same as hash(out, outOffset, parts) for three segments, 
+	 * without the allocation of the varargs array
+	 *
+	 * @param out		the hash value (getOutputSize() bytes) will be copied in this array
+	 * @param outOffset	start position of the array out
+	 * @param part1		the first input segment
+	 * @param part2		the second input segment
+	 * @param part3		the third input segment
+	 */
+	public default void hash(byte[] out, int outOffset, Segment part1, Segment part2, Segment part3) {
+
+		if (part1.length > 0) {
+			update(part1.array, part1.offset, part1.length);
+		}
+		if (part2.length > 0) {
+			update(part2.array, part2.offset, part2.length);
+		}
+		if (part3.length > 0) {
+			update(part3.array, part3.offset, part3.length);
+		}
+		doFinal(out, outOffset);
+		reset();
+	}
+
 	public String getName();
+	
+	/**
+	 * @return	the number of bytes written by doFinal
+	 */
+	public int getOutputSize();
 }
@@ -0,0 +1,19 @@
+package cologne.eck.dr.op.crypto.digest;
+
+/*
+ * FastHash for states of 64-bit words: 
+ * the inputs and the output are slots of 
+ * getOutputSize() / 8 words, for example the 
+ * vertices of a Catena graph kept as long[]. 
+ * The result is the same as for the bytes in 
+ * little-endian order. 
+ * The output may overlap the inputs.
+ */
+
+public interface LongFastHash extends FastHash {
+
+	public void hash(int vIndex, 
+			long[] input1, int inIndex1, 
+			long[] input2, int inIndex2, 
+			long[] hash, int outIndex);
+}
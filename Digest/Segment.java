@@ -0,0 +1,108 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Input segment for the gather hash of Digest
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  A part of an array, one input of Digest.hash(out, outOffset, parts):
+
+    The array is not copied. Segments are mutable, so frequently
+    called functions can allocate them once and set the parts
+    before each hash.
+
+   Example code using this class:
+
+      Segment a = new Segment();
+      Segment b = new Segment();
+      ...
+      a.set(input1, inIndex1, 64);
+      b.set(input2, inIndex2, 64);
+      digest.hash(out, 0, a, b);
+*/
+
+
+public final class Segment {
+
+	byte[] array;
+	int offset;
+	int length;
+
+	public Segment() {
+		this(null, 0, 0);
+	}
+
+	public Segment(byte[] _array) {
+		this(_array, 0, (_array == null) ? 0 : _array.length);
+	}
+
+	/**
+	 * @param _array	the array containing the input or null
+	 * @param _offset	position of the array to start from
+	 * @param _length	number of bytes of the input
+	 */
+	public Segment(byte[] _array, int _offset, int _length) {
+		set(_array, _offset, _length);
+	}
+
+	/**
+	 * Sets the part of the array
+	 *
+	 * @param _array	the array containing the input or null
+	 * @param _offset	position of the array to start from
+	 * @param _length	number of bytes of the input
+	 * @return			this segment
+	 */
+	public Segment set(byte[] _array, int _offset, int _length) {
+		if (_array == null) {
+			_offset = 0;
+			_length = 0;
+		} else if (_offset < 0 || _length < 0 || _offset > _array.length - _length) {
+			throw new IllegalArgumentException("Invalid segment (offset "
+					+ _offset + ", length " + _length + ", array " + _array.length + ")");
+		}
+		array = _array;
+		offset = _offset;
+		length = _length;
+		return this;
+	}
+
+	/**
+	 * Sets the whole array
+	 *
+	 * @param _array	the array containing the input or null
+	 * @return			this segment
+	 */
+	public Segment set(byte[] _array) {
+		return set(_array, 0, (_array == null) ? 0 : _array.length);
+	}
+
+	public byte[] getArray() {
+		return array;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getLength() {
+		return length;
+	}
+}
@@ -0,0 +1,246 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Incremental hashing of append-only files
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Hashes files which only grow, for example log files:
+
+    After each hash the intermediate state of Blake2b
+    (Blake2b.getEncodedState) is stored in a checkpoint file,
+    by default next to the file with the extension ".b2checkpoint".
+    The next hash restores this state and reads only the appended
+    bytes. The hash value is always the Blake2b hash value
+    (64 bytes) of the complete content.
+
+    The checkpoint contains the hash value of the last 4 KiB before
+    the checkpoint position. If the file was truncated or
+    this part was modified, the file is hashed from the beginning.
+    Modifications before this part are not detected.
+    A checkpoint with other parameters (rounds, lengths, salt,
+    personalization, tree parameters) is ignored, too.
+
+    The checkpoint file is:
+
+      magic "B2CP", version (1), position (8), tail hash value (64),
+      length of the encoded state (4), encoded state
+
+   Example code using this class:
+
+      AppendOnlyFileHasher hasher = new AppendOnlyFileHasher(Paths.get("audit.log"));
+      byte[] hash = hasher.hash(); // reads only bytes appended since the last call
+*/
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+
+
+public class AppendOnlyFileHasher {
+
+	private final static int MAGIC = 0x42324350; // "B2CP"
+	private final static byte VERSION = 1;
+	private final static int TAIL_LENGTH = 4096;
+	private final static int HASH_LENGTH = 64;
+	private final static int BUFFER_SIZE = 64 * 1024;
+	// length of the encoded state of Blake2b: header and buffered bytes
+	private final static int MIN_STATE_LENGTH = 151;
+	private final static int MAX_STATE_LENGTH = MIN_STATE_LENGTH + 128;
+
+	private final Path file;
+	private final Path checkpointFile;
+
+	// position of the checkpoint used by the last hash, 0 if none
+	private long resumedFrom = 0;
+	// number of bytes of the last hash value
+	private long length = 0;
+
+	/**
+	 * Uses the checkpoint file next to the file
+	 *
+	 * @param _file		the file to hash
+	 */
+	public AppendOnlyFileHasher(Path _file) {
+		this(_file, _file.resolveSibling(_file.getFileName() + ".b2checkpoint"));
+	}
+
+	/**
+	 * @param _file				the file to hash
+	 * @param _checkpointFile	the file to store the intermediate state
+	 */
+	public AppendOnlyFileHasher(Path _file, Path _checkpointFile) {
+		file = _file;
+		checkpointFile = _checkpointFile;
+	}
+
+	/**
+	 * Computes the hash value of the current content:
+	 * restores the checkpoint, processes the appended bytes
+	 * and stores the new checkpoint. Bytes appended
+	 * while hashing are processed by the next call.
+	 *
+	 * @return	the Blake2b hash value (64 bytes)
+	 *
+	 * @throws IOException	if the file can not be read
+	 * 						or the checkpoint can not be written
+	 */
+	public byte[] hash() throws IOException {
+
+		byte[] hash = new byte[HASH_LENGTH];
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			long end = channel.size();
+			Blake2b digest = new Blake2bUnrolled();
+			long position = restore(channel, end, digest);
+			resumedFrom = position;
+
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			while (position < end) {
+				buffer.clear();
+				if (end - position < buffer.capacity()) {
+					buffer.limit((int) (end - position));
+				}
+				int read = channel.read(buffer, position);
+				if (read < 0) {
+					throw new IOException("Unexpected end of file: " + file);
+				}
+				buffer.flip();
+				digest.update(buffer);
+				position += read;
+			}
+			store(channel, end, digest.getEncodedState());
+			digest.doFinal(hash, 0);
+			length = end;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return	the number of bytes, which were hashed
+	 * 			by the last call of hash()
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * @return	the position of the checkpoint, where the
+	 * 			last call of hash() continued, 0 if
+	 * 			the file was hashed from the beginning
+	 */
+	public long getResumedFrom() {
+		return resumedFrom;
+	}
+
+	/**
+	 * Deletes the checkpoint: the next hash reads the whole file
+	 *
+	 * @throws IOException	if the checkpoint can not be deleted
+	 */
+	public void deleteCheckpoint() throws IOException {
+		Files.deleteIfExists(checkpointFile);
+	}
+
+	// restores the checkpoint if it is valid for the file,
+	// returns the position to continue
+	private long restore(FileChannel channel, long end, Blake2b digest) throws IOException {
+
+		if ( ! Files.exists(checkpointFile)) {
+			return 0;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(Files.readAllBytes(checkpointFile)))) {
+
+			if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+				return 0;
+			}
+			long position = in.readLong();
+			byte[] tailHash = new byte[HASH_LENGTH];
+			in.readFully(tailHash);
+			int stateLength = in.readInt();
+			if (stateLength < MIN_STATE_LENGTH || stateLength > MAX_STATE_LENGTH) {
+				return 0;
+			}
+			byte[] state = new byte[stateLength];
+			in.readFully(state);
+			if (position > end
+					|| ! MessageDigest.isEqual(tailHash, tailHash(channel, position))) {
+				return 0; // truncated or modified
+			}
+			if ( ! digest.hasEncodedParameters(state)) {
+				return 0; // checkpoint of other parameters
+			}
+			digest.restoreState(state);
+			return position;
+
+		} catch (IOException | IllegalArgumentException e) {
+			// incomplete or invalid checkpoint:
+			digest.reset();
+			return 0;
+		}
+	}
+
+	// writes the checkpoint, the old checkpoint is replaced
+	// after the new one was written completely
+	private void store(FileChannel channel, long position, byte[] state) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeByte(VERSION);
+		out.writeLong(position);
+		out.write(tailHash(channel, position));
+		out.writeInt(state.length);
+		out.write(state);
+		out.flush();
+
+		Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+		Files.write(tmp, bytes.toByteArray());
+		Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// hash value of the last TAIL_LENGTH bytes before position
+	private static byte[] tailHash(FileChannel channel, long position) throws IOException {
+
+		long start = Math.max(0, position - TAIL_LENGTH);
+		ByteBuffer tail = ByteBuffer.allocate((int) (position - start));
+		while (tail.hasRemaining()) {
+			if (channel.read(tail, start + tail.position()) < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+		tail.flip();
+		Blake2b digest = new Blake2bUnrolled();
+		digest.update(tail);
+		byte[] hash = new byte[HASH_LENGTH];
+		digest.doFinal(hash, 0);
+		return hash;
+	}
+}
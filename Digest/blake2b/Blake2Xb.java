@@ -0,0 +1,400 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Extendable-Output Function Blake2Xb
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Blake2Xb is the extendable-output function (XOF) of Blake2b
+    (BLAKE2X paper, https://blake2.net/blake2x.pdf):
+
+    The input is hashed by Blake2b to a 64 byte hash value H0,
+    the output length is set in the parameter block (high 32 bits
+    of the node offset).
+    Output block i (64 bytes, the last block may be shorter) is the
+    hash value of H0 with fanout 0, depth 0, leaf length 64,
+    node offset i, inner hash length 64 and the digest length
+    of this block. Salt and personalization are used for all blocks,
+    the key only for H0.
+
+    The output blocks are independent: squeeze() computes them
+    without allocation directly into the output array, large outputs
+    are computed in parallel on a ForkJoinPool.
+
+    If the output length is not known in advance, use UNKNOWN_LENGTH:
+    then up to 2^32 blocks of 64 bytes can be squeezed.
+
+   Example code using this class:
+
+      Blake2Xb xof = new Blake2Xb(null, 1000, null, null); // no key, 1000 bytes output
+      xof.update( anyByteArray );
+      byte[] out = new byte[1000];
+      xof.squeeze(out, 0, 200); // first 200 bytes
+      xof.squeeze(out, 200, 800); // next 800 bytes
+*/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+public class Blake2Xb implements Digest {
+
+	/**
+	 * Output length for an unknown number of bytes
+	 * (up to 2^32 blocks of 64 bytes)
+	 */
+	public final static long UNKNOWN_LENGTH = 0xFFFFFFFFL;
+
+	private final static int OUT_BYTES = 64;
+
+	// default minimal number of output bytes to compute the blocks in parallel
+	private final static int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+	private byte[] salt = null;
+	private byte[] personalization = null;
+	private long xofLength; // 1 - 2^32-2 or UNKNOWN_LENGTH
+
+	private Blake2b rootHash; // computes H0
+	private Blake2b engine; // compression function of output blocks
+
+	// H0 as message block of output blocks,
+	// the last 8 words remain zero:
+	private long[] rootWords = new long[16];
+	// chain value of the current output block:
+	private long[] chain = new long[8];
+	// current output block for squeezes of partial blocks:
+	private byte[] block = new byte[OUT_BYTES];
+	private long blockIndex = -1; // index of the block in this.block
+
+	private long position = 0; // number of squeezed bytes
+	private boolean squeezing = false;
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private ForkJoinPool pool = null;// common pool if null
+
+	/**
+	 * @param _key				the key (0 - 64 bytes) or null
+	 * @param _xofLength		the output length in bytes (1 - 2^32-2)
+	 * 							or UNKNOWN_LENGTH
+	 * @param _salt				the salt (16 bytes) or null
+	 * @param _personalization	the personalization string (16 bytes) or null
+	 */
+	public Blake2Xb(
+			byte[] _key,
+			long _xofLength,
+			byte[] _salt,
+			byte[] _personalization) {
+
+		if (_xofLength < 1 || _xofLength > UNKNOWN_LENGTH) {
+			throw new IllegalArgumentException("Invalid output length (required: 1 - 2^32-2)");
+		}
+		xofLength = _xofLength;
+		// key, salt and personalization are checked by Blake2b:
+		salt = (_salt == null) ? null : _salt.clone();
+		personalization = (_personalization == null) ? null : _personalization.clone();
+		engine = new Blake2bUnrolled();
+		// xofLength is stored in the high 32 bits of the node offset
+		rootHash = new Blake2bUnrolled(_key, OUT_BYTES, salt, personalization,
+				1, 1, 0L, xofLength << 32, 0, 0);
+	}
+
+	/**
+	 * @param _key				the key (0 - 64 bytes) or null
+	 * @param _xofLength		the output length in bytes (1 - 2^32-2)
+	 * 							or UNKNOWN_LENGTH
+	 * @param _salt				the salt (16 bytes) or null
+	 * @param _personalization	the personalization string (16 bytes) or null
+	 * @param _parallelThreshold	minimal length of output for squeeze(),
+	 * 							to compute the blocks in parallel
+	 * @param _pool				the pool to compute the blocks,
+	 * 							or null for the common pool
+	 */
+	public Blake2Xb(
+			byte[] _key,
+			long _xofLength,
+			byte[] _salt,
+			byte[] _personalization,
+			int _parallelThreshold,
+			ForkJoinPool _pool) {
+		this(_key, _xofLength, _salt, _personalization);
+		parallelThreshold = _parallelThreshold;
+		pool = _pool;
+	}
+
+	/**
+	 * Processes the given message
+	 *
+	 * @param message
+	 *            byte array containing the message to be processed
+	 */
+	public void update(byte[] message) {
+		checkAbsorbing();
+		rootHash.update(message);
+	}
+
+	/**
+	 * Processes one single byte
+	 *
+	 * @param b
+	 *            single byte to be processed
+	 */
+	public void update(byte b) {
+		checkAbsorbing();
+		rootHash.update(b);
+	}
+
+	/**
+	 * Processes a number of bytes of the given message
+	 * from a start position up to offset+len
+	 *
+	 * @param message
+	 *            byte array containing the message to be processed
+	 * @param offset
+	 *            position of message to start from
+	 * @param len
+	 *            number of bytes to be processed.
+	 */
+	public void update(byte[] message, int offset, int len) {
+		checkAbsorbing();
+		rootHash.update(message, offset, len);
+	}
+
+	private void checkAbsorbing() {
+		if (squeezing == true) {
+			throw new IllegalStateException("Can not update after squeeze, call reset()");
+		}
+	}
+
+	/**
+	 * Writes the next len bytes of the output.
+	 * The first call finishes the input.
+	 *
+	 * @param out		the output will be copied in this array
+	 * @param offset	start position of the array out
+	 * @param len		number of bytes to write
+	 */
+	public void squeeze(byte[] out, int offset, int len) {
+
+		if (len < 0 || offset < 0 || offset + len > out.length) {
+			throw new IllegalArgumentException("Invalid offset or length of output array");
+		}
+		long maxLength = (xofLength == UNKNOWN_LENGTH)
+				? (UNKNOWN_LENGTH + 1) * OUT_BYTES
+				: xofLength;
+		if (len > maxLength - position) {
+			throw new IllegalArgumentException("Output exceeds the length of "
+				+ maxLength + " bytes");
+		}
+		if (squeezing == false) {
+			finishInput();
+		}
+		// rest of the current block:
+		int blockOffset = (int) (position & (OUT_BYTES - 1));
+		if (blockOffset != 0 && len > 0) {
+			int n = Math.min(len, OUT_BYTES - blockOffset);
+			fillBlock(position >>> 6);
+			System.arraycopy(block, blockOffset, out, offset, n);
+			position += n;
+			offset += n;
+			len -= n;
+		}
+		// complete blocks directly into out:
+		int fullBlocks = len >>> 6;
+		if (fullBlocks > 0) {
+			long firstBlock = position >>> 6;
+			if (len >= parallelThreshold) {
+				ForkJoinPool p = (pool == null) ? ForkJoinPool.commonPool() : pool;
+				p.invoke(new ParallelSqueeze(this, out, offset, firstBlock, fullBlocks));
+			} else {
+				for (int i = 0; i < fullBlocks; i++) {
+					outputBlock(engine, chain, firstBlock + i, out, offset + i * OUT_BYTES);
+				}
+			}
+			position += fullBlocks * OUT_BYTES;
+			offset += fullBlocks * OUT_BYTES;
+			len -= fullBlocks * OUT_BYTES;
+		}
+		// start of the next block:
+		if (len > 0) {
+			fillBlock(position >>> 6);
+			System.arraycopy(block, 0, out, offset, len);
+			position += len;
+		}
+	}
+
+	// compute H0
+	private void finishInput() {
+		rootHash.doFinal(block, 0);
+		for (int i = 0; i < 8; i++) {
+			rootWords[i] = Blake2b.bytes2long(block, i * 8);
+		}
+		Arrays.fill(block, (byte) 0);
+		blockIndex = -1;
+		squeezing = true;
+	}
+
+	// compute output block i into this.block if not already there
+	private void fillBlock(long i) {
+		if (blockIndex != i) {
+			outputBlock(engine, chain, i, block, 0);
+			blockIndex = i;
+		}
+	}
+
+	// length of output block i
+	private int blockLength(long i) {
+		if (xofLength == UNKNOWN_LENGTH) {
+			return OUT_BYTES;
+		} else {
+			return (int) Math.min(OUT_BYTES, xofLength - i * OUT_BYTES);
+		}
+	}
+
+	/*
+	 * Computes output block i (the hash value of H0)
+	 * and writes blockLength(i) bytes to out.
+	 * The chain value h is used as work space.
+	 */
+	private void outputBlock(Blake2b compressor, long[] h, long i, byte[] out, int outOffset) {
+
+		int length = blockLength(i);
+		// parameter block: key length 0, fanout 0, depth 0,
+		// leaf length 64, node depth 0, inner hash length 64
+		h[0] = Blake2b.blake2b_IV[0] ^ (length | ((long) OUT_BYTES << 32));
+		h[1] = Blake2b.blake2b_IV[1] ^ (i | (xofLength << 32));
+		h[2] = Blake2b.blake2b_IV[2] ^ (OUT_BYTES << 8);
+		h[3] = Blake2b.blake2b_IV[3];
+		h[4] = Blake2b.blake2b_IV[4];
+		h[5] = Blake2b.blake2b_IV[5];
+		if (salt != null) {
+			h[4] ^= Blake2b.bytes2long(salt, 0);
+			h[5] ^= Blake2b.bytes2long(salt, 8);
+		}
+		h[6] = Blake2b.blake2b_IV[6];
+		h[7] = Blake2b.blake2b_IV[7];
+		if (personalization != null) {
+			h[6] ^= Blake2b.bytes2long(personalization, 0);
+			h[7] ^= Blake2b.bytes2long(personalization, 8);
+		}
+		// one single (last) block of 64 bytes:
+		compressor.compress(h, rootWords, OUT_BYTES, 0L, 0xFFFFFFFFFFFFFFFFL, 0L);
+
+		int fullWords = length >>> 3;
+		for (int w = 0; w < fullWords; w++) {
+			Blake2b.long2bytes(h[w], out, outOffset + w * 8);
+		}
+		for (int b = fullWords * 8; b < length; b++) {
+			out[outOffset + b] = (byte) (h[b >>> 3] >>> ((b & 7) << 3));
+		}
+	}
+
+	/**
+	 * Writes the complete output of xofLength bytes.
+	 * This requires a known output length up to 2^31-1
+	 * bytes and that squeeze() was not called before.
+	 * Larger outputs must be written by squeeze().
+	 *
+	 * @param out
+	 * 			the output will be copied in this array
+	 * @param outOffset
+	 * 			start position of the array out
+	 */
+	public void doFinal(byte[] out, int outOffset) {
+		if (xofLength == UNKNOWN_LENGTH) {
+			throw new IllegalStateException("Unknown output length, use squeeze()");
+		}
+		if (xofLength > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Output length larger than 2^31-1 bytes, use squeeze()");
+		}
+		if (position != 0) {
+			throw new IllegalStateException("Output was already squeezed, call reset()");
+		}
+		squeeze(out, outOffset, (int) xofLength);
+	}
+
+	/**
+	 * Reset the function to use again after squeeze() or doFinal().
+	 */
+	public void reset() {
+		rootHash.reset();
+		Arrays.fill(rootWords, 0L);
+		Arrays.fill(chain, 0L);
+		Arrays.fill(block, (byte) 0);
+		blockIndex = -1;
+		position = 0;
+		squeezing = false;
+	}
+
+	public String getName() {
+		return "Blake2Xb";
+	}
+
+	/**
+	 * @return	the output length, 0 for UNKNOWN_LENGTH
+	 * 			or output lengths > 2^31-1
+	 */
+	public int getOutputSize() {
+		return (xofLength > Integer.MAX_VALUE) ? 0 : (int) xofLength;
+	}
+
+	/**
+	 * Computes a range of complete output blocks,
+	 * ranges larger than the threshold are split 
+	 * (the task lives only during squeeze)
+	 */
+	private static class ParallelSqueeze extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Blake2Xb xof;
+		private final byte[] out;
+		private final int outOffset;
+		private final long firstBlock;
+		private final int numberOfBlocks;
+
+		ParallelSqueeze(Blake2Xb _xof, byte[] _out, int _outOffset,
+				long _firstBlock, int _numberOfBlocks) {
+			xof = _xof;
+			out = _out;
+			outOffset = _outOffset;
+			firstBlock = _firstBlock;
+			numberOfBlocks = _numberOfBlocks;
+		}
+
+		@Override
+		protected void compute() {
+			if (numberOfBlocks > 1 && numberOfBlocks * OUT_BYTES > xof.parallelThreshold) {
+				int half = numberOfBlocks / 2;
+				invokeAll(
+						new ParallelSqueeze(xof, out, outOffset, firstBlock, half),
+						new ParallelSqueeze(xof, out, outOffset + half * OUT_BYTES,
+								firstBlock + half, numberOfBlocks - half));
+				return;
+			}
+			// each task uses its own compression function and chain value:
+			Blake2b compressor = new Blake2bUnrolled();
+			long[] h = new long[8];
+			for (int i = 0; i < numberOfBlocks; i++) {
+				xof.outputBlock(compressor, h, firstBlock + i, out, outOffset + i * OUT_BYTES);
+			}
+		}
+	}
+}
@@ -35,7 +35,9 @@ package cologne.eck.dr.op.crypto.digest;
       Reference Implementation and Description can be found at: https://blake2.net/      
       Internet Draft: https://tools.ietf.org/html/draft-saarinen-blake2-02
       
-   This implementation does not support the Tree Hashing Mode. 
+   The parameters of the Tree Hashing Mode can be set by a constructor, 
+   the parallel mode Blake2bp is implemented in the class Blake2bp, 
+   a parallel driver for the Tree Hashing Mode in the class Blake2bTree. 
           
       
    Example code using this class:
@@ -64,14 +66,27 @@ package cologne.eck.dr.op.crypto.digest;
       b2bX.update( anyByteArray );
       byte[] resultX = new byte[outputLength];
       b2bX.doFinal(resultX, 0); // resultX now holds the hash value    
+      
+      Blake2b prefix = new Blake2b(); 
+      prefix.update( commonPrefix );
+      Blake2b snapshot = new Blake2b(prefix); // midstate after the prefix
+      prefix.copyIn(snapshot); // restore the midstate for each message
+      prefix.update( anyByteArray );
+      prefix.doFinal(hash, 0);
+      
+      // fixed parameters, precomputed once (see Blake2bParams):
+      Blake2bParams domain = new Blake2bParams(null, 32, anySalt, anyPersonalization);
+      Blake2b b2bP = new Blake2b(domain);
 */
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 
 public class Blake2b implements Digest {
 	
-	private final static long blake2b_IV[] = 
+	final static long blake2b_IV[] = 
 			// Blake2b Initialization Vector: 
 			// Produced from the square root of primes 2, 3, 5, 7, 11, 13, 17, 19.
 			// The same as SHA-512 IV.
@@ -101,6 +116,16 @@ public class Blake2b implements Digest {
 	private int rOUNDS = 12; // to use for Catenas H'
 	private final static int BLOCK_LENGTH_BYTES = 128;// bytes
 	
+	/**
+	 * System property to enable Blake2bVector in newInstance()
+	 */
+	public final static String VECTOR_PROPERTY = "cologne.eck.blake2b.vector";
+	
+	// encoding of the intermediate state, see getEncodedState()
+	private final static byte ENCODED_STATE_VERSION = 1;
+	private final static int ENCODED_STATE_HEADER = 151;// bytes before the buffered bytes
+	private final static int ENCODED_PARAMETERS_END = 54;// version and parameters
+	
 	// General parameters:
 	private int digestLength = 64; // 1- 64 bytes 
 	private int keyLength = 0; // 0 - 64 bytes for keyed hashing for MAC
@@ -108,15 +133,18 @@ public class Blake2b implements Digest {
 	private byte[] personalization = null;//new byte[16];
 	
 	// Tree hashing parameters: 
-	// Because this class does not implement the Tree Hashing Mode,
-	// these parameters can be treated as constants (see init() function)
-/*	private int fanout = 1; // 0-255
-	private int depth = 1; // 1 - 255
-	private int leafLength= 0; 
+	// default values for sequential mode
+	private int fanout = 1; // 0-255
+	private int depth = 1; // 0 - 255
+	private long leafLength= 0; // 0 - 2^32-1
 	private long nodeOffset = 0L;
-	private int nodeDepth = 0; 
-	private int innerHashLength = 0; 
-*/	
+	private int nodeDepth = 0; // 0 - 255
+	private int innerHashLength = 0; // 0 - 64
+	private boolean lastNode = false; // set f1 for the last node of a layer
+	
+	// number of bytes written by doFinal, 
+	// differs from digestLength only for the leaves of Blake2bp
+	private int outputLength = 64;
 	
 	// whenever this buffer overflows, it will be processed 
 	// in the compress() function. 
@@ -128,13 +156,27 @@ public class Blake2b implements Digest {
 	private long[] internalState = new long[16]; // In the Blake2b paper it is called: v
 	private long[] chainValue = null; // state vector, in the Blake2b paper it is called: h
 	
+	// reused arrays of the fixed-arity gather hash:
+	private final Segment[] twoParts = new Segment[2];
+	private final Segment[] threeParts = new Segment[3];
+	
+	// message words of the current block, 
+	// reused for every compression to avoid allocations:
+	private long[] m = new long[16];
+	
 	private long t0 = 0L; // holds last significant bits, counter (counts bytes)
 	private long t1 = 0L; // counter: Length up to 2^128 are supported
 	private long f0 = 0L; // finalization flag, for last block: ~0L
-
-
-	// For Tree Hashing Mode, not used here:
-//	private long f1 = 0L; // finalization flag, for last node: ~0L 
+	private long f1 = 0L; // finalization flag, for last node: ~0L 
+	
+	// keyed hashing: the padded key block and the chain value 
+	// after this block was processed, used by reset()
+	private byte[] keyBlock = null;
+	private long[] keyedChainValue = null;// computed by the first reset()
+	
+	// chain value after the parameter block, 
+	// precomputed by Blake2bParams and copied by init()
+	private long[] initialChainValue = null;
 	
 	public Blake2b() {
 		buffer = new byte[BLOCK_LENGTH_BYTES];
@@ -152,6 +194,7 @@ public class Blake2b implements Digest {
 			keyLength = key.length;
 			System.arraycopy(key, 0, buffer, 0, key.length);
 			bufferPos = BLOCK_LENGTH_BYTES; // zero padding
+			keyBlock = buffer.clone();
 		} 
 		digestLength = 64;
 		init();
@@ -161,12 +204,44 @@ public class Blake2b implements Digest {
 			int _digestLength, 
 			byte[] _salt, 
 			byte[] _personalization) {
+		
+		this(key, _digestLength, _salt, _personalization, 
+				1, 1, 0L, 0L, 0, 0);// sequential mode
+	}
+	
+	/**
+	 * Constructor with all parameters of the parameter block, 
+	 * used for the Tree Hashing Mode
+	 * 
+	 * @param key				the key (0 - 64 bytes) or null
+	 * @param _digestLength		the length of the hash value (1 - 64 bytes)
+	 * @param _salt				the salt (16 bytes) or null
+	 * @param _personalization	the personalization string (16 bytes) or null
+	 * @param _fanout			the fanout (0 - 255, 0 means unlimited)
+	 * @param _depth			the maximal depth (0 - 255, 255 means unlimited)
+	 * @param _leafLength		the maximal byte length of leaves (0 - 2^32-1, 0 means unlimited)
+	 * @param _nodeOffset		the node offset
+	 * @param _nodeDepth		the node depth (0 - 255), 0 for leaves
+	 * @param _innerHashLength	the inner hash length (0 - 64 bytes)
+	 */
+	public Blake2b(
+			byte[] key, 
+			int _digestLength, 
+			byte[] _salt, 
+			byte[] _personalization,
+			int _fanout, 
+			int _depth, 
+			long _leafLength, 
+			long _nodeOffset, 
+			int _nodeDepth, 
+			int _innerHashLength) {
 
 		buffer = new byte[BLOCK_LENGTH_BYTES];
-		if (_digestLength < 1 || digestLength > 64) {
+		if (_digestLength < 1 || _digestLength > 64) {
 			throw new IllegalArgumentException("Invalid digest length (required: 1 - 64)");		
 		}
 		digestLength = _digestLength;		
+		outputLength = _digestLength;
 		if (_salt != null) {
 			if (_salt.length != 16) {
 				throw new IllegalArgumentException("salt length must be exactly 16 bytes");
@@ -181,6 +256,27 @@ public class Blake2b implements Digest {
 			personalization = new byte[16];
 			System.arraycopy(_personalization,  0,  personalization,  0,  _personalization.length);
 		}		
+		if (_fanout < 0 || _fanout > 255) {
+			throw new IllegalArgumentException("Invalid fanout (required: 0 - 255)");
+		}
+		fanout = _fanout;
+		if (_depth < 0 || _depth > 255) {
+			throw new IllegalArgumentException("Invalid depth (required: 0 - 255)");
+		}
+		depth = _depth;
+		if (_leafLength < 0 || _leafLength > 0xFFFFFFFFL) {
+			throw new IllegalArgumentException("Invalid leaf length (required: 0 - 2^32-1)");
+		}
+		leafLength = _leafLength;
+		nodeOffset = _nodeOffset;
+		if (_nodeDepth < 0 || _nodeDepth > 255) {
+			throw new IllegalArgumentException("Invalid node depth (required: 0 - 255)");
+		}
+		nodeDepth = _nodeDepth;
+		if (_innerHashLength < 0 || _innerHashLength > 64) {
+			throw new IllegalArgumentException("Invalid inner hash length (required: 0 - 64)");
+		}
+		innerHashLength = _innerHashLength;
 		if (key != null) {
 			if (key.length > 64) {
 				throw new IllegalArgumentException("Keys > 64 are not supported");
@@ -188,50 +284,351 @@ public class Blake2b implements Digest {
 			keyLength = key.length;
 			System.arraycopy(key, 0, buffer, 0, key.length);
 			bufferPos = BLOCK_LENGTH_BYTES; // zero padding
+			keyBlock = buffer.clone();
 		} 
 		init();
 	}
 	
-	// initialize chainValue
+	/**
+	 * Creates a digest with precomputed parameters: 
+	 * the parameter block and the key block are not processed, 
+	 * the chain value is copied from the parameters. 
+	 * 
+	 * @param params	the parameters (key, digest length, salt, personalization)
+	 */
+	public Blake2b(Blake2bParams params) {
+		this(params.prototype);
+	}
+	
+	/**
+	 * Copy constructor: copies the intermediate state (midstate) 
+	 * of the given digest, for example after a common prefix 
+	 * was processed. Both instances can be used independently.
+	 * 
+	 * @param t		the digest to copy
+	 */
+	public Blake2b(Blake2b t) {
+		buffer = new byte[BLOCK_LENGTH_BYTES];
+		chainValue = new long[8];
+		copyIn(t);
+	}
+	
+	/**
+	 * Copies the intermediate state into a new instance 
+	 * of the same implementation (subclasses override this). 
+	 * 
+	 * @return	the copy
+	 */
+	public Blake2b copy() {
+		return new Blake2b(this);
+	}
+	
+	/**
+	 * Restores the intermediate state of the given digest 
+	 * into this instance without allocation: 
+	 * a snapshot taken by the copy constructor after a common 
+	 * prefix can be restored for each message with this prefix.
+	 * 
+	 * @param t		the digest to copy
+	 */
+	public final void copyIn(Blake2b t) {
+		
+		rOUNDS = t.rOUNDS;
+		digestLength = t.digestLength;
+		keyLength = t.keyLength;
+		salt = t.salt; // never modified
+		personalization = t.personalization;
+		fanout = t.fanout;
+		depth = t.depth;
+		leafLength = t.leafLength;
+		nodeOffset = t.nodeOffset;
+		nodeDepth = t.nodeDepth;
+		innerHashLength = t.innerHashLength;
+		lastNode = t.lastNode;
+		outputLength = t.outputLength;
+		keyBlock = t.keyBlock; // never modified
+		keyedChainValue = t.keyedChainValue;
+		initialChainValue = t.initialChainValue; // never modified
+		
+		System.arraycopy(t.buffer, 0, buffer, 0, BLOCK_LENGTH_BYTES);
+		bufferPos = t.bufferPos;
+		System.arraycopy(t.chainValue, 0, chainValue, 0, 8);
+		t0 = t.t0;
+		t1 = t.t1;
+		f0 = t.f0;
+		f1 = t.f1;
+	}
+	
+	/**
+	 * Encodes the parameters and the intermediate state 
+	 * (chain value, counters, flags and buffered bytes) 
+	 * to continue the computation later, for example 
+	 * in another process (see AppendOnlyFileHasher). 
+	 * The encoding is stable: 
+	 * 
+	 *   version (1), rounds, digest length, output length, key length, 
+	 *   fanout, depth, node depth, inner hash length, 
+	 *   flags (1: salt, 2: personalization, 4: last node), 
+	 *   leaf length (4), node offset (8), salt (16), personalization (16), 
+	 *   chain value (64), t0, t1, f0, f1 (8 each), 
+	 *   number of buffered bytes (1), buffered bytes
+	 *   
+	 * Multi-byte values are little-endian. 
+	 * Keyed digests can not be encoded: the state 
+	 * after the key block is as secret as the key. 
+	 * 
+	 * @return	the encoded state (151 - 279 bytes)
+	 * 
+	 * @throws IllegalStateException	for keyed digests
+	 */
+	public byte[] getEncodedState() {
+		
+		if (keyBlock != null || keyLength != 0) {
+			throw new IllegalStateException("The state of keyed digests can not be encoded");
+		}
+		byte[] encoded = new byte[ENCODED_STATE_HEADER + bufferPos];
+		encoded[0] = ENCODED_STATE_VERSION;
+		encodeParameters(encoded);
+		for (int i = 0; i < 8; i++) {
+			long2bytes(chainValue[i], encoded, 54 + i * 8);
+		}
+		long2bytes(t0, encoded, 118);
+		long2bytes(t1, encoded, 126);
+		long2bytes(f0, encoded, 134);
+		long2bytes(f1, encoded, 142);
+		encoded[150] = (byte) bufferPos;
+		System.arraycopy(buffer, 0, encoded, ENCODED_STATE_HEADER, bufferPos);
+		return encoded;
+	}
+	
+	/**
+	 * Checks if an encoding of getEncodedState() has the 
+	 * parameters of this digest: rounds, digest and output length, 
+	 * key length, tree parameters, salt and personalization. 
+	 * 
+	 * @param encodedState	the encoded state
+	 * @return				true if the parameters are equal
+	 */
+	public boolean hasEncodedParameters(byte[] encodedState) {
+		
+		if (encodedState == null || encodedState.length < ENCODED_STATE_HEADER) {
+			return false;
+		}
+		byte[] parameters = new byte[ENCODED_PARAMETERS_END];
+		encodeParameters(parameters);
+		for (int i = 1; i < ENCODED_PARAMETERS_END; i++) {
+			if (parameters[i] != encodedState[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	// writes the parameters (bytes 1 - 53) of the encoded state
+	private void encodeParameters(byte[] encoded) {
+		
+		encoded[1] = (byte) rOUNDS;
+		encoded[2] = (byte) digestLength;
+		encoded[3] = (byte) outputLength;
+		encoded[4] = (byte) keyLength;
+		encoded[5] = (byte) fanout;
+		encoded[6] = (byte) depth;
+		encoded[7] = (byte) nodeDepth;
+		encoded[8] = (byte) innerHashLength;
+		encoded[9] = (byte) ( (salt != null ? 1 : 0) 
+				| (personalization != null ? 2 : 0) 
+				| (lastNode ? 4 : 0) );
+		for (int i = 0; i < 4; i++) {
+			encoded[10 + i] = (byte) (leafLength >>> (i * 8));
+		}
+		long2bytes(nodeOffset, encoded, 14);
+		if (salt != null) {
+			System.arraycopy(salt, 0, encoded, 22, 16);
+		}
+		if (personalization != null) {
+			System.arraycopy(personalization, 0, encoded, 38, 16);
+		}
+	}
+	
+	/**
+	 * Restores parameters and intermediate state 
+	 * from an encoding of getEncodedState(). 
+	 * This instance becomes an unkeyed digest. 
+	 * 
+	 * @param encodedState	the encoded state
+	 * 
+	 * @throws IllegalArgumentException		if the encoding is invalid, 
+	 * 										has a key length or less than 12 rounds
+	 */
+	public void restoreState(byte[] encodedState) {
+		
+		if (encodedState == null || encodedState.length < ENCODED_STATE_HEADER
+				|| encodedState[0] != ENCODED_STATE_VERSION) {
+			throw new IllegalArgumentException("Invalid encoded state");
+		}
+		int pos = encodedState[150] & 0xFF;
+		int rounds = encodedState[1] & 0xFF;
+		int length = encodedState[2] & 0xFF;
+		int outLength = encodedState[3] & 0xFF;
+		if (pos > BLOCK_LENGTH_BYTES || encodedState.length != ENCODED_STATE_HEADER + pos
+				|| rounds != 12
+				|| length < 1 || length > 64 || outLength < 1 || outLength > 64 
+				|| encodedState[4] != 0 || (encodedState[8] & 0xFF) > 64) {
+			throw new IllegalArgumentException("Invalid encoded state");
+		}
+		rOUNDS = rounds;
+		digestLength = length;
+		outputLength = outLength;
+		keyLength = 0;
+		fanout = encodedState[5] & 0xFF;
+		depth = encodedState[6] & 0xFF;
+		nodeDepth = encodedState[7] & 0xFF;
+		innerHashLength = encodedState[8] & 0xFF;
+		int flags = encodedState[9];
+		salt = ((flags & 1) != 0) ? Arrays.copyOfRange(encodedState, 22, 38) : null;
+		personalization = ((flags & 2) != 0) ? Arrays.copyOfRange(encodedState, 38, 54) : null;
+		lastNode = (flags & 4) != 0;
+		leafLength = 0;
+		for (int i = 0; i < 4; i++) {
+			leafLength |= (encodedState[10 + i] & 0xFFL) << (i * 8);
+		}
+		nodeOffset = bytes2long(encodedState, 14);
+		keyBlock = null;
+		keyedChainValue = null;
+		initialChainValue = null;
+		
+		for (int i = 0; i < 8; i++) {
+			chainValue[i] = bytes2long(encodedState, 54 + i * 8);
+		}
+		t0 = bytes2long(encodedState, 118);
+		t1 = bytes2long(encodedState, 126);
+		f0 = bytes2long(encodedState, 134);
+		f1 = bytes2long(encodedState, 142);
+		bufferPos = pos;
+		System.arraycopy(encodedState, ENCODED_STATE_HEADER, buffer, 0, pos);
+	}
+	
+	/**
+	 * Returns Blake2bUnrolled, or Blake2bVector if the system 
+	 * property VECTOR_PROPERTY is "true", the module 
+	 * jdk.incubator.vector is present and the platform supports 
+	 * 256 bit vectors. The vector engine is not faster than 
+	 * Blake2bUnrolled on the tested platforms (and slower before 
+	 * warm-up), so it must be enabled explicitly. 
+	 * 
+	 * @return	a new unkeyed instance of Blake2b
+	 */
+	public static Blake2b newInstance() {
+		return newInstance(null, 64, null, null);
+	}
+	
+	/**
+	 * Returns Blake2bUnrolled, or Blake2bVector if the system 
+	 * property VECTOR_PROPERTY is "true", the module 
+	 * jdk.incubator.vector is present and the platform supports 
+	 * 256 bit vectors. The vector engine is not faster than 
+	 * Blake2bUnrolled on the tested platforms (and slower before 
+	 * warm-up), so it must be enabled explicitly. 
+	 * 
+	 * @param key				the key (0 - 64 bytes) or null
+	 * @param digestLength		the length of the hash value (1 - 64 bytes)
+	 * @param salt				the salt (16 bytes) or null
+	 * @param personalization	the personalization string (16 bytes) or null
+	 * 
+	 * @return	a new instance of Blake2b
+	 */
+	public static Blake2b newInstance(
+			byte[] key, 
+			int digestLength, 
+			byte[] salt, 
+			byte[] personalization) {
+		
+		if ( ! Boolean.getBoolean(VECTOR_PROPERTY)) {
+			return new Blake2bUnrolled(key, digestLength, salt, personalization);
+		}
+		try {
+			// loaded by reflection: this class must work without the incubator module
+			Class<?> vectorClass = Class.forName("cologne.eck.dr.op.crypto.digest.Blake2bVector");
+			if ( (Boolean) vectorClass.getMethod("isSupported").invoke(null) ) {
+				return (Blake2b) vectorClass.getConstructor(
+						byte[].class, int.class, byte[].class, byte[].class)
+						.newInstance(key, digestLength, salt, personalization);
+			}
+		} catch (java.lang.reflect.InvocationTargetException e) {
+			// invalid parameters: 
+			if (e.getCause() instanceof IllegalArgumentException) {
+				throw (IllegalArgumentException) e.getCause();
+			}
+		} catch (ReflectiveOperationException | LinkageError e) {
+			// Vector API not available: use scalar implementation
+		}
+		return new Blake2bUnrolled(key, digestLength, salt, personalization);
+	}
+	
+	/**
+	 * Computes the unkeyed hash values of several independent messages 
+	 * one after the other, without buffer management and reset 
+	 * (see Blake2bBatch). 
+	 * 
+	 * @param messages	the messages
+	 * @param outs		outs[i] receives the hash value of messages[i] 
+	 * 					with digest length outs[i].length (1 - 64)
+	 */
+	public static void hashBatch(byte[][] messages, byte[][] outs) {
+		new Blake2bBatch().hash(messages, outs);
+	}
+	
+	// initialize chainValue: 
+	// the array is reused by reset(), so no allocation after construction
 	private void init() {
 		
 		if (chainValue == null){
 			chainValue = new long[8];
-
-			chainValue[0] = blake2b_IV[0] ^ ( digestLength | (keyLength << 8) | 0x1010000);
-				// 0x1010000 = ((fanout << 16) | (depth << 24) | (leafLength << 32)); 
-				// with fanout = 1; depth = 0; leafLength = 0;
-			chainValue[1] = blake2b_IV[1];// ^ nodeOffset; with nodeOffset = 0;
-			chainValue[2] = blake2b_IV[2];// ^ ( nodeDepth | (innerHashLength << 8) );
-			// with nodeDepth = 0; innerHashLength = 0;
-			
-			chainValue[3] = blake2b_IV[3];
-			
-			chainValue[4] = blake2b_IV[4];
-			chainValue[5] = blake2b_IV[5];
-			if (salt != null) {
-				chainValue[4] ^= (bytes2long(salt, 0));
-				chainValue[5] ^= (bytes2long(salt, 8));
-			}
-			
-			chainValue[6] = blake2b_IV[6];
-			chainValue[7] = blake2b_IV[7];
-			if (personalization != null) {
-				chainValue[6] ^= (bytes2long(personalization, 0));
-				chainValue[7] ^= (bytes2long(personalization, 8));				
-			}
 		}
+		if (initialChainValue != null) { // precomputed by Blake2bParams
+			System.arraycopy(initialChainValue, 0, chainValue, 0, 8);
+			return;
+		}
+		chainValue[0] = blake2b_IV[0] ^ ( digestLength | (keyLength << 8) 
+				| (fanout << 16) | ((long) depth << 24) | (leafLength << 32));
+			// sequential mode: fanout = 1; depth = 1; leafLength = 0;
+		chainValue[1] = blake2b_IV[1] ^ nodeOffset;
+		chainValue[2] = blake2b_IV[2] ^ ( nodeDepth | (innerHashLength << 8) );
+			// sequential mode: nodeOffset = 0; nodeDepth = 0; innerHashLength = 0;
+		
+		chainValue[3] = blake2b_IV[3];
+		
+		chainValue[4] = blake2b_IV[4];
+		chainValue[5] = blake2b_IV[5];
+		if (salt != null) {
+			chainValue[4] ^= (bytes2long(salt, 0));
+			chainValue[5] ^= (bytes2long(salt, 8));
+		}
+		
+		chainValue[6] = blake2b_IV[6];
+		chainValue[7] = blake2b_IV[7];
+		if (personalization != null) {
+			chainValue[6] ^= (bytes2long(personalization, 0));
+			chainValue[7] ^= (bytes2long(personalization, 8));				
+		}
+	}
+	
+	// caches the chain values for Blake2bParams: 
+	// must be called before any input is processed
+	void precompute() {
+		initialChainValue = chainValue.clone();
+		reset(); // processes the key block once
 	}
 	
-	private void initializeInternalState(){
+	private void initializeInternalState(long[] h, long t0, long t1, long f0, long f1){
 		
 		// initialize v:
-		System.arraycopy(chainValue, 0, internalState, 0, chainValue.length);
-		System.arraycopy(blake2b_IV, 0, internalState, chainValue.length, 4);
+		System.arraycopy(h, 0, internalState, 0, h.length);
+		System.arraycopy(blake2b_IV, 0, internalState, h.length, 4);
 		internalState[12] = t0 ^ blake2b_IV[4];
 		internalState[13] = t1 ^ blake2b_IV[5];
 		internalState[14] = f0 ^ blake2b_IV[6];
-		internalState[15] = blake2b_IV[7];// ^ f1 with f1 = 0
+		internalState[15] = f1 ^ blake2b_IV[7];
 	}
 	
 	/**
@@ -266,7 +663,6 @@ public class Blake2b implements Digest {
 			}
 			compress(buffer, 0);
 
-			Arrays.fill(buffer,  (byte) 0);// clear buffer
 			buffer[0] = b;
 			bufferPos = 1;
 		} else {
@@ -307,7 +703,6 @@ public class Blake2b implements Digest {
 				compress(buffer, 0);
 				
 				bufferPos = 0;
-				Arrays.fill(buffer,  (byte) 0);// clear buffer				
 				
 			} else {
 				System.arraycopy(message, offset, buffer, bufferPos, 
@@ -334,6 +729,64 @@ public class Blake2b implements Digest {
 		bufferPos += offset + len - messagePos;		
 	}
 	
+	/**
+	 * Processes the remaining bytes of the buffer, 
+	 * the position of the buffer is set to the limit. 
+	 * The message words of complete blocks are read in place 
+	 * from heap and direct buffers (any byte order), 
+	 * only incomplete blocks are copied into the internal buffer.
+	 * 
+	 * @param input
+	 *            heap or direct buffer containing the message to be processed
+	 */
+	public void update(ByteBuffer input) {
+		
+		int len = input.remaining();
+		if (len == 0) return;
+		
+		if (input.hasArray()) {
+			update(input.array(), input.arrayOffset() + input.position(), len);
+			input.position(input.limit());
+			return;
+		}
+		if (bufferPos != 0) { // commenced, incomplete buffer
+			
+			// complete the buffer:
+			int remainingLength = BLOCK_LENGTH_BYTES - bufferPos;
+			if (remainingLength < len) { // full buffer + at least 1 byte
+				input.get(buffer, bufferPos, remainingLength);
+				t0 += BLOCK_LENGTH_BYTES;
+				if (t0 == 0) { // if message > 2^64
+					t1++;	
+				}
+				compress(buffer, 0);
+				bufferPos = 0;
+				len -= remainingLength;
+			} else {
+				input.get(buffer, bufferPos, len);
+				bufferPos += len;
+				return;
+			}
+		}
+		// process blocks except last block (also if last block is full)
+		boolean bigEndian = input.order() == ByteOrder.BIG_ENDIAN;
+		int inputPos = input.position();
+		int blockWiseLastPos = inputPos + len - BLOCK_LENGTH_BYTES;
+		for ( ; inputPos < blockWiseLastPos; inputPos += BLOCK_LENGTH_BYTES) {
+			t0 += BLOCK_LENGTH_BYTES;
+			if (t0 == 0) {
+				t1++;	
+			}
+			compress(input, inputPos, bigEndian);
+		}
+		input.position(inputPos);
+		
+		//fill the buffer with left bytes, this might be a full block
+		int left = input.remaining();
+		input.get(buffer, 0, left);
+		bufferPos = left;
+	}
+	
 	/**
 	 * Calculates the final digest value 
 	 * 
@@ -344,48 +797,238 @@ public class Blake2b implements Digest {
 	 */	
 	public void doFinal(byte[] out, int outOffset) {
 		
+		if (bufferPos == 0 && t0 == BLOCK_LENGTH_BYTES && t1 == 0 && keyBlock != null) {
+			// keyed digest after reset() without input: 
+			// the key block is the last block
+			init();
+			System.arraycopy(keyBlock, 0, buffer, 0, BLOCK_LENGTH_BYTES);
+			bufferPos = BLOCK_LENGTH_BYTES;
+			t0 = 0L;
+		}
 		f0 = 0xFFFFFFFFFFFFFFFFL;
+		if (lastNode == true) {
+			f1 = 0xFFFFFFFFFFFFFFFFL;
+		}
 		t0 += bufferPos;
 		// bufferPos may be < 128, so (t0 == 0) does not work 
 		// for  2^64 < message length > 2^64 - 127
 		if ( (t0 < 0) && (bufferPos > -t0) ) {
 			t1++;
 		}
+		// zero padding of the last block: 
+		// the buffer is not cleared after each compression
+		Arrays.fill(buffer, bufferPos, BLOCK_LENGTH_BYTES, (byte) 0);
 		compress(buffer, 0);
 		bufferPos = 0;
 
-		for (int i = 0; i < chainValue.length; i++) {
-			System.arraycopy(long2bytes(chainValue[i]), 0, out, outOffset + i * 8, 8);
-		}		
+		writeOutput(out, outOffset);
+	}
+	
+	/**
+	 * Computes the hash value of the concatenated segments 
+	 * (after any input of previous updates) and resets the digest.
+	 * Complete blocks are compressed in place from the segments, 
+	 * only blocks which span several segments are assembled 
+	 * in the buffer. The digest is restarted without clearing 
+	 * the buffer and the internal state. 
+	 * The output may overlap the segments.
+	 * 
+	 * @param out		the hash value (outputLength bytes) will be copied in this array
+	 * @param outOffset	start position of the array out
+	 * @param parts		the input segments
+	 */
+	@Override
+	public void hash(byte[] out, int outOffset, Segment... parts) {
+		
+		// bytes, which are not yet compressed:
+		long remaining = bufferPos;
+		for (Segment part : parts) {
+			remaining += part.length;
+		}
+		boolean finished = false;
+		for (Segment part : parts) {
+			byte[] message = part.array;
+			int pos = part.offset;
+			int end = part.offset + part.length;
+			while (pos < end) {
+				if (bufferPos == BLOCK_LENGTH_BYTES) { // full buffer + at least 1 byte
+					t0 += BLOCK_LENGTH_BYTES;
+					if (t0 == 0) {
+						t1++;	
+					}
+					compress(buffer, 0);
+					bufferPos = 0;
+					remaining -= BLOCK_LENGTH_BYTES;
+				}
+				if (bufferPos == 0 && end - pos >= BLOCK_LENGTH_BYTES) {
+					// complete block in place:
+					t0 += BLOCK_LENGTH_BYTES;
+					if (t0 == 0) { // if message > 2^64
+						t1++;	
+					}
+					if (remaining == BLOCK_LENGTH_BYTES) { // last block
+						f0 = 0xFFFFFFFFFFFFFFFFL;
+						if (lastNode == true) {
+							f1 = 0xFFFFFFFFFFFFFFFFL;
+						}
+						finished = true;
+					}
+					compress(message, pos);
+					pos += BLOCK_LENGTH_BYTES;
+					remaining -= BLOCK_LENGTH_BYTES;
+				} else {
+					int len = Math.min(end - pos, BLOCK_LENGTH_BYTES - bufferPos);
+					System.arraycopy(message, pos, buffer, bufferPos, len);
+					bufferPos += len;
+					pos += len;
+				}
+			}
+		}
+		if (finished == true) {
+			writeOutput(out, outOffset);
+		} else {
+			doFinal(out, outOffset);
+		}
+		restart();
+	}
+	
+	@Override
+	public void hash(byte[] out, int outOffset, Segment part1, Segment part2) {
+		twoParts[0] = part1;
+		twoParts[1] = part2;
+		hash(out, outOffset, twoParts);
+		Arrays.fill(twoParts, null);
+	}
+	
+	@Override
+	public void hash(byte[] out, int outOffset, Segment part1, Segment part2, Segment part3) {
+		threeParts[0] = part1;
+		threeParts[1] = part2;
+		threeParts[2] = part3;
+		hash(out, outOffset, threeParts);
+		Arrays.fill(threeParts, null);
+	}
+	
+	// write the chain value in place, 
+	// only the first digestLength bytes are used:
+	private void writeOutput(byte[] out, int outOffset) {
+		int fullWords = outputLength >>> 3;
+		for (int i = 0; i < fullWords; i++) {
+			long2bytes(chainValue[i], out, outOffset + i * 8);
+		}
+		for (int i = fullWords * 8; i < outputLength; i++) {
+			out[outOffset + i] = (byte) (chainValue[i >>> 3] >>> ((i & 7) << 3));
+		}
 	}
 	
 	/**
 	 * Reset the hash function to use again after doFinal().
-	 * This will not work for keyed digests. 
+	 * Keyed digests restore the cached chain value 
+	 * after the key block, the key block is not processed again. 
 	 */
 	public void reset() {
+		Arrays.fill(buffer,  (byte) 0);
+		Arrays.fill(internalState, 0L);
+		Arrays.fill(m, 0L);
+		restart();
+	}
+	
+	// reset without clearing buffer, internal state and message words
+	private void restart() {
 		bufferPos = 0;
 		f0 = 0L;
+		f1 = 0L;
 		t0 = 0L;
 		t1 = 0L;
-		Arrays.fill(buffer,  (byte) 0);// Holds eventually the key if input is null
-		Arrays.fill(chainValue, 0L);	
-		Arrays.fill(internalState, 0L);
-		chainValue = null;
-		if (keyLength > 0) {
-			throw new IllegalStateException("Can not reset keyed Digest");
-		}
 		init();
+		if (keyBlock != null) {
+			if (keyedChainValue == null) {
+				// process the key block once:
+				long[] keyedChain = chainValue.clone();
+				for (int j = 0; j < 16; j++) {
+					m[j] = bytes2long(keyBlock, j*8);
+				}
+				compress(keyedChain, m, BLOCK_LENGTH_BYTES, 0L, 0L, 0L);
+				Arrays.fill(m, 0L);
+				keyedChainValue = keyedChain;
+			}
+			// continue after the key block:
+			System.arraycopy(keyedChainValue, 0, chainValue, 0, 8);
+			t0 = BLOCK_LENGTH_BYTES;
+		}
 	}
 	
+	/*
+	 * For subclasses, which read message words from other
+	 * sources in place (see Blake2bMemorySegment):
+	 */
+	// number of bytes in the buffer, which are not yet compressed (0 - 128)
+	int getBufferPos() {
+		return bufferPos;
+	}
+	// compresses a full buffer, if more input follows
+	void compressBuffer() {
+		t0 += BLOCK_LENGTH_BYTES;
+		if (t0 == 0) {
+			t1++;
+		}
+		compress(buffer, 0);
+		bufferPos = 0;
+	}
+	// the message words to fill before compressMessageWords()
+	long[] getMessageWords() {
+		return m;
+	}
+	// compresses a complete block (not the last block) from the message words,
+	// the buffer must be empty
+	void compressMessageWords() {
+		t0 += BLOCK_LENGTH_BYTES;
+		if (t0 == 0) {
+			t1++;
+		}
+		compress(chainValue, m, t0, t1, f0, f1);
+	}
+
 	private void compress(byte[] message, int messagePos) {
 
-		initializeInternalState();
-		
-		long[] m = new long[16];
+		// read the message words in place:
 		for (int j = 0; j < 16; j++) {
 			m[j] = bytes2long(message, messagePos + j*8);
 		}
+		compress(chainValue, m, t0, t1, f0, f1);
+	}
+	
+	private void compress(ByteBuffer message, int messagePos, boolean bigEndian) {
+		
+		// read the message words in place, little-endian:
+		if (bigEndian == true) {
+			for (int j = 0; j < 16; j++) {
+				m[j] = Long.reverseBytes(message.getLong(messagePos + j*8));
+			}
+		} else {
+			for (int j = 0; j < 16; j++) {
+				m[j] = message.getLong(messagePos + j*8);
+			}
+		}
+		compress(chainValue, m, t0, t1, f0, f1);
+	}
+	
+	/**
+	 * The compression function F: updates the chain value h 
+	 * with one block of 16 message words. 
+	 * Subclasses can replace this function by another 
+	 * implementation of the same function (see Blake2bUnrolled). 
+	 * 
+	 * @param h		the chain value (8 words), updated in place
+	 * @param m		the message block (16 words)
+	 * @param t0	low word of the byte counter
+	 * @param t1	high word of the byte counter
+	 * @param f0	finalization flag for the last block
+	 * @param f1	finalization flag for the last node (Tree Hashing Mode)
+	 */
+	protected void compress(long[] h, long[] m, long t0, long t1, long f0, long f1) {
+
+		initializeInternalState(h, t0, t1, f0, f1);
 
 		for (int round = 0; round < rOUNDS; round++) {
 			
@@ -403,7 +1046,7 @@ public class Blake2b implements Digest {
 		
 		// update chain values: 
 		for( int offset = 0; offset < 8; offset++ ) {
-			chainValue[offset] = chainValue[offset] ^ internalState[offset] ^ internalState[offset + 8];	
+			h[offset] = h[offset] ^ internalState[offset] ^ internalState[offset + 8];	
 		}
 	}
 	
@@ -427,6 +1070,44 @@ public class Blake2b implements Digest {
 	public String getName(){
 		return "Blake2b";
 	}
+	
+	public int getOutputSize() {
+		return outputLength;
+	}
+	
+	/**
+	 * Marks this node as the last node of its layer 
+	 * in the Tree Hashing Mode: the finalization flag f1
+	 * is set for the last block. 
+	 * 
+	 * @param _lastNode		true for the last node of a layer
+	 */
+	public void setLastNode(boolean _lastNode) {
+		lastNode = _lastNode;
+	}
+	
+	/**
+	 * Sets the number of bytes written by doFinal, 
+	 * independent of the digest length in the parameter block. 
+	 * This is only used for the leaves of Blake2bp.
+	 * 
+	 * @param _outputLength		the number of bytes (1 - 64)
+	 */
+	void setOutputLength(int _outputLength) {
+		outputLength = _outputLength;
+	}
+	
+	/**
+	 * Sets the key length in the parameter block without 
+	 * processing a key block. This is only used for the root of Blake2bp. 
+	 * Must be called before any input is processed. 
+	 * 
+	 * @param _keyLength	the key length of the parameter block
+	 */
+	void setKeyLengthParameter(int _keyLength) {
+		keyLength = _keyLength;
+		init();
+	}
 
 	// convert one long value in byte array
 	// little-endian byte order!
@@ -441,6 +1122,18 @@ public class Blake2b implements Digest {
 	        (byte) (longValue >> 48),
 	        (byte) (longValue >> 56)};
 	}
+	// convert one long value into the given byte array
+	// without allocation, little-endian byte order!
+	public final static void long2bytes(long longValue, byte[] out, int outOffset) {
+		out[outOffset]     = (byte) longValue;
+		out[outOffset + 1] = (byte) (longValue >> 8);
+		out[outOffset + 2] = (byte) (longValue >> 16);
+		out[outOffset + 3] = (byte) (longValue >> 24);
+		out[outOffset + 4] = (byte) (longValue >> 32);
+		out[outOffset + 5] = (byte) (longValue >> 40);
+		out[outOffset + 6] = (byte) (longValue >> 48);
+		out[outOffset + 7] = (byte) (longValue >> 56);
+	}
 	// little-endian byte order!
 	public final static long bytes2long(byte[] byteArray, int offset) {
 	      
@@ -0,0 +1,165 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * InputStream that hashes the read data
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Hashes all data read from the underlying stream:
+
+    Single bytes are collected in a buffer of 64 blocks (8 KiB)
+    and passed to the digest block-wise, large arrays are passed
+    directly. Skipped bytes are read and hashed,
+    mark and reset are not supported.
+
+   Example code using this class:
+
+      Blake2bInputStream in = new Blake2bInputStream(anyInputStream);
+      while (in.read(anyByteArray) != -1) { ... }
+      byte[] hash = new byte[64];
+      in.doFinal(hash, 0); // hash of all read bytes
+*/
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+
+public class Blake2bInputStream extends FilterInputStream {
+
+	private final static int BUFFER_SIZE = 64 * 128; // 64 blocks of Blake2b
+
+	private final Digest digest;
+
+	// read bytes, not yet processed by the digest:
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPos = 0;
+
+	/**
+	 * Hashes the data with unkeyed Blake2b (64 bytes)
+	 *
+	 * @param in	the underlying input stream
+	 */
+	public Blake2bInputStream(InputStream in) {
+		this(in, new Blake2bUnrolled());
+	}
+
+	/**
+	 * @param in		the underlying input stream
+	 * @param _digest	the digest to process the data
+	 */
+	public Blake2bInputStream(InputStream in, Digest _digest) {
+		super(in);
+		if (_digest == null) {
+			throw new IllegalArgumentException("Missing digest");
+		}
+		digest = _digest;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b = in.read();
+		if (b != -1) {
+			if (bufferPos == BUFFER_SIZE) {
+				digest.update(buffer, 0, BUFFER_SIZE);
+				bufferPos = 0;
+			}
+			buffer[bufferPos++] = (byte) b;
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		int n = in.read(b, off, len);
+		if (n > 0) {
+			if (n <= BUFFER_SIZE - bufferPos) {
+				System.arraycopy(b, off, buffer, bufferPos, n);
+				bufferPos += n;
+			} else {
+				processBuffer();
+				digest.update(b, off, n);
+			}
+		}
+		return n;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		if (n <= 0) {
+			return 0;
+		}
+		// skipped bytes must be hashed:
+		byte[] skipBuffer = new byte[(int) Math.min(n, BUFFER_SIZE)];
+		long skipped = 0;
+		while (skipped < n) {
+			int len = read(skipBuffer, 0, (int) Math.min(n - skipped, skipBuffer.length));
+			if (len == -1) {
+				break;
+			}
+			skipped += len;
+		}
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	@Override
+	public synchronized void mark(int readlimit) {
+	}
+
+	@Override
+	public synchronized void reset() throws IOException {
+		throw new IOException("mark/reset not supported");
+	}
+
+	// passes the buffered bytes to the digest
+	private void processBuffer() {
+		if (bufferPos > 0) {
+			digest.update(buffer, 0, bufferPos);
+			bufferPos = 0;
+		}
+	}
+
+	/**
+	 * Calculates the hash value of all read bytes
+	 * and resets the digest.
+	 *
+	 * @param hash		the hash value will be copied in this array
+	 * @param offset	start position of the array hash
+	 */
+	public void doFinal(byte[] hash, int offset) {
+		processBuffer();
+		digest.doFinal(hash, offset);
+		digest.reset();
+	}
+
+	/**
+	 * @return	the digest, buffered bytes are passed
+	 * 			to the digest before it is returned
+	 */
+	public Digest getDigest() {
+		processBuffer();
+		return digest;
+	}
+}
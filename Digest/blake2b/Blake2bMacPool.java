@@ -0,0 +1,118 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Thread-safe pool of keyed Blake2b instances
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Computes and verifies MACs with keyed Blake2b from several threads:
+
+    The key block is processed once, each pooled instance is a copy
+    of this state and is reset after use without processing the key
+    again. Instances are created on demand, so the pool grows to the
+    number of concurrent callers.
+
+   Example code using this class:
+
+      Blake2bMacPool macs = new Blake2bMacPool(key, 32);
+      byte[] tag = macs.mac(message);
+      boolean valid = macs.verify(message, tag);
+*/
+
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+public class Blake2bMacPool {
+
+	private final int macLength;
+	private final Blake2b prototype; // keyed state, never updated
+	private final ConcurrentLinkedQueue<Blake2b> pool = new ConcurrentLinkedQueue<Blake2b>();
+
+	/**
+	 * @param key			the key (1 - 64 bytes)
+	 * @param _macLength	the length of the MAC (1 - 64 bytes)
+	 */
+	public Blake2bMacPool(byte[] key, int _macLength) {
+		if (key == null || key.length == 0) {
+			throw new IllegalArgumentException("Missing key");
+		}
+		prototype = new Blake2bUnrolled(key, _macLength, null, null);
+		// process the key block once for all copies:
+		prototype.reset();
+		macLength = _macLength;
+	}
+
+	/**
+	 * Computes the MAC of the message
+	 *
+	 * @param message	the message
+	 * @return			the MAC (macLength bytes)
+	 */
+	public byte[] mac(byte[] message) {
+		byte[] out = new byte[macLength];
+		mac(message, 0, message.length, out, 0);
+		return out;
+	}
+
+	/**
+	 * Computes the MAC of a part of the message
+	 *
+	 * @param message		the message
+	 * @param offset		position of message to start from
+	 * @param len			number of bytes to be processed
+	 * @param out			the MAC (macLength bytes) will be copied in this array
+	 * @param outOffset		start position of the array out
+	 */
+	public void mac(byte[] message, int offset, int len, byte[] out, int outOffset) {
+		Blake2b digest = pool.poll();
+		if (digest == null) {
+			digest = new Blake2bUnrolled(prototype);
+		}
+		try {
+			digest.update(message, offset, len);
+			digest.doFinal(out, outOffset);
+		} finally {
+			digest.reset();
+			pool.offer(digest);
+		}
+	}
+
+	/**
+	 * Verifies the MAC of the message in constant time
+	 *
+	 * @param message	the message
+	 * @param mac		the MAC to check
+	 * @return			true if the MAC is valid
+	 */
+	public boolean verify(byte[] message, byte[] mac) {
+		if (mac == null || mac.length != macLength) {
+			return false;
+		}
+		return MessageDigest.isEqual(mac(message), mac);
+	}
+
+	/**
+	 * @return	the length of the MAC in bytes
+	 */
+	public int getMacLength() {
+		return macLength;
+	}
+}
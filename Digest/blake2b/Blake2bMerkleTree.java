@@ -0,0 +1,373 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Merkle tree of Blake2b with incremental updates
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Binary hash tree over the chunks of a large file or array,
+    which keeps all nodes in memory:
+
+    The leaves are the hash values of the chunks (the last chunk may be
+    shorter, empty data gives one empty chunk), each inner node
+    hashes the concatenated hash values of two children (or one child
+    at the end of a layer). The nodes use the parameter block of
+    the Tree Hashing Mode: fanout 2, unlimited depth, leaf length
+    chunkSize, node offset and node depth of the node, inner hash
+    length and digest length hashLength, the last node of
+    each layer sets the flag f1. So the root is equal to
+    Blake2bTree(null, hashLength, null, null, 2, 255, chunkSize, hashLength).
+
+    A full build hashes the nodes of each layer in parallel on
+    a ForkJoinPool. After a write to the data, only the
+    changed chunks and their ancestors are computed again:
+    O(log n) nodes for a single chunk.
+    Memory: about 2 * hashLength bytes per chunk.
+
+   Example code using this class:
+
+      Blake2bMerkleTree tree = new Blake2bMerkleTree(64 * 1024, 32);
+      tree.build(Paths.get("blocks.dat"));
+      byte[] root = tree.getRoot();
+      ... // write 100 bytes at position 5000000
+      tree.update(Paths.get("blocks.dat"), 5000000, 100);
+      byte[] newRoot = tree.getRoot();
+*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+public class Blake2bMerkleTree {
+
+	private final static int UNLIMITED_DEPTH = 255;
+
+	// minimal number of bytes for one task
+	private final static int DEFAULT_TASK_LENGTH = 64 * 1024;
+
+	private final int chunkSize;
+	private final int hashLength;
+	private ForkJoinPool pool = null;// common pool if null
+
+	private long dataLength = 0;
+	// layers[0]: leaves, layers[layers.length - 1]: root
+	private byte[][] layers = null;
+	private int[] nodeCounts = null;
+
+	// read buffer of each thread for files
+	private final ThreadLocal<ByteBuffer> readBuffer;
+
+	/**
+	 * @param _chunkSize	the size of the chunks (leaves) in bytes
+	 * @param _hashLength	the length of the hash values of all nodes (1 - 64)
+	 */
+	public Blake2bMerkleTree(int _chunkSize, int _hashLength) {
+
+		if (_chunkSize < 1) {
+			throw new IllegalArgumentException("Invalid chunk size (required: > 0)");
+		}
+		if (_hashLength < 1 || _hashLength > 64) {
+			throw new IllegalArgumentException("Invalid hash length (required: 1 - 64)");
+		}
+		chunkSize = _chunkSize;
+		hashLength = _hashLength;
+		readBuffer = ThreadLocal.withInitial(() -> ByteBuffer.allocate(chunkSize));
+	}
+
+	/**
+	 * @param _pool		the pool to compute the nodes,
+	 * 					or null for the common pool
+	 */
+	public void setPool(ForkJoinPool _pool) {
+		pool = _pool;
+	}
+
+	/**
+	 * Builds the tree over a part of an array
+	 *
+	 * @param data		the data
+	 * @param offset	position of data to start from
+	 * @param len		number of bytes
+	 */
+	public void build(byte[] data, int offset, int len) {
+		allocate(len);
+		computeLeaves(arraySource(data, offset), 0, nodeCounts[0]);
+		computeInnerNodes(0, nodeCounts[0] - 1);
+	}
+
+	/**
+	 * Builds the tree over the content of a file
+	 *
+	 * @param file	the file
+	 *
+	 * @throws IOException	if the file can not be read
+	 */
+	public void build(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			allocate(channel.size());
+			computeLeaves(fileSource(channel), 0, nodeCounts[0]);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		computeInnerNodes(0, nodeCounts[0] - 1);
+	}
+
+	/**
+	 * Computes the tree again after a part of the array was modified.
+	 * The length of the data must not change.
+	 *
+	 * @param data		the data, the same part as for build()
+	 * @param offset	position of data, as for build()
+	 * @param position	position of the modified bytes, relative to offset
+	 * @param len		number of modified bytes
+	 */
+	public void update(byte[] data, int offset, long position, long len) {
+		int first = firstChunk(position, len);
+		int last = lastChunk(position, len);
+		computeLeaves(arraySource(data, offset), first, last + 1);
+		computeInnerNodes(first, last);
+	}
+
+	/**
+	 * Computes the tree again after a part of the file was modified.
+	 * The size of the file must not change.
+	 *
+	 * @param file		the file
+	 * @param position	position of the modified bytes
+	 * @param len		number of modified bytes
+	 *
+	 * @throws IOException	if the file can not be read
+	 */
+	public void update(Path file, long position, long len) throws IOException {
+		int first = firstChunk(position, len);
+		int last = lastChunk(position, len);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() != dataLength) {
+				throw new IllegalArgumentException("The size of the file has changed");
+			}
+			computeLeaves(fileSource(channel), first, last + 1);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		computeInnerNodes(first, last);
+	}
+
+	/**
+	 * @return	the root hash value (hashLength bytes)
+	 */
+	public byte[] getRoot() {
+		checkBuilt();
+		return layers[layers.length - 1].clone();
+	}
+
+	/**
+	 * @param index		the index of the chunk
+	 * @return			the hash value of the chunk (hashLength bytes)
+	 */
+	public byte[] getLeaf(int index) {
+		checkBuilt();
+		if (index < 0 || index >= nodeCounts[0]) {
+			throw new IllegalArgumentException("Invalid chunk index");
+		}
+		byte[] leaf = new byte[hashLength];
+		System.arraycopy(layers[0], index * hashLength, leaf, 0, hashLength);
+		return leaf;
+	}
+
+	/**
+	 * @return	the number of chunks (leaves)
+	 */
+	public int getChunkCount() {
+		checkBuilt();
+		return nodeCounts[0];
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	public int getHashLength() {
+		return hashLength;
+	}
+
+	//=========================================================================
+
+	// source of the chunks: hashes chunk index by the node
+	private interface ChunkSource {
+		void hashChunk(int index, Blake2b node) throws IOException;
+	}
+
+	private ChunkSource arraySource(byte[] data, int offset) {
+		return (index, node) -> node.update(data, offset + (int) chunkStart(index), chunkLength(index));
+	}
+
+	private ChunkSource fileSource(FileChannel channel) {
+		return (index, node) -> {
+			ByteBuffer buffer = readBuffer.get();
+			buffer.clear();
+			buffer.limit(chunkLength(index));
+			long start = chunkStart(index);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of file");
+				}
+			}
+			buffer.flip();
+			node.update(buffer);
+		};
+	}
+
+	// allocates the layers for data of the given length
+	private void allocate(long len) {
+
+		long chunks = (len == 0) ? 1 : (len + chunkSize - 1) / chunkSize;
+		if (chunks * hashLength > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many chunks, use a larger chunk size");
+		}
+		// leaves and at least one inner layer (the root):
+		int depth = 2;
+		for (long n = (chunks + 1) / 2; n > 1; n = (n + 1) / 2) {
+			depth++;
+		}
+		dataLength = len;
+		layers = new byte[depth][];
+		nodeCounts = new int[depth];
+		int n = (int) chunks;
+		for (int d = 0; d < depth; d++) {
+			nodeCounts[d] = n;
+			layers[d] = new byte[n * hashLength];
+			n = (n + 1) / 2;
+		}
+	}
+
+	private void computeLeaves(ChunkSource source, int start, int end) {
+		ForkJoinPool p = (pool == null) ? ForkJoinPool.commonPool() : pool;
+		p.invoke(new NodeTask(this, source, 0, start, end));
+	}
+
+	// computes the ancestors of the leaves first - last
+	private void computeInnerNodes(int first, int last) {
+		ForkJoinPool p = (pool == null) ? ForkJoinPool.commonPool() : pool;
+		for (int d = 1; d < layers.length; d++) {
+			first >>>= 1;
+			last >>>= 1;
+			p.invoke(new NodeTask(this, null, d, first, last + 1));
+		}
+	}
+
+	// node with the parameters of this tree
+	private Blake2b newNode(long nodeOffset, int nodeDepth, boolean lastNode) {
+		Blake2b node = new Blake2bUnrolled(null, hashLength, null, null,
+				2, UNLIMITED_DEPTH, chunkSize, nodeOffset, nodeDepth, hashLength);
+		node.setLastNode(lastNode);
+		return node;
+	}
+
+	// computes node index of layer nodeDepth
+	private void computeNode(ChunkSource source, int nodeDepth, int index) throws IOException {
+
+		boolean lastNode = index == nodeCounts[nodeDepth] - 1;
+		Blake2b node = newNode(index, nodeDepth, lastNode);
+		if (nodeDepth == 0) {
+			source.hashChunk(index, node);
+		} else {
+			int children = Math.min(2, nodeCounts[nodeDepth - 1] - 2 * index);
+			node.update(layers[nodeDepth - 1], 2 * index * hashLength, children * hashLength);
+		}
+		node.doFinal(layers[nodeDepth], index * hashLength);
+	}
+
+	private long chunkStart(int index) {
+		return (long) index * chunkSize;
+	}
+
+	private int chunkLength(int index) {
+		return (int) Math.min(chunkSize, dataLength - chunkStart(index));
+	}
+
+	private int firstChunk(long position, long len) {
+		checkBuilt();
+		if (position < 0 || len < 0 || position + len > dataLength) {
+			throw new IllegalArgumentException("Invalid range of modified bytes");
+		}
+		return (int) (position / chunkSize);
+	}
+
+	private int lastChunk(long position, long len) {
+		return (len == 0) ? (int) (position / chunkSize)
+				: (int) ((position + len - 1) / chunkSize);
+	}
+
+	private void checkBuilt() {
+		if (layers == null) {
+			throw new IllegalStateException("Tree not built");
+		}
+	}
+
+	/**
+	 * Computes a range of nodes of one layer, 
+	 * the tree and the chunk source are not serialized
+	 */
+	private static class NodeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Blake2bMerkleTree tree;
+		private final transient ChunkSource source; // for the leaves
+		private final int nodeDepth;
+		private final int start;
+		private final int end; // exclusive
+
+		NodeTask(Blake2bMerkleTree _tree, ChunkSource _source, int _nodeDepth, int _start, int _end) {
+			tree = _tree;
+			source = _source;
+			nodeDepth = _nodeDepth;
+			start = _start;
+			end = _end;
+		}
+
+		@Override
+		protected void compute() {
+
+			int count = end - start;
+			long nodeInputLength = (nodeDepth == 0) ? tree.chunkSize : 2 * tree.hashLength;
+			if (count > 1 && count * nodeInputLength > DEFAULT_TASK_LENGTH) {
+				int middle = start + count / 2;
+				invokeAll(
+						new NodeTask(tree, source, nodeDepth, start, middle),
+						new NodeTask(tree, source, nodeDepth, middle, end));
+				return;
+			}
+			try {
+				for (int i = start; i < end; i++) {
+					tree.computeNode(source, nodeDepth, i);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
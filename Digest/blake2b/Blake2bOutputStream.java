@@ -0,0 +1,128 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * OutputStream that hashes the written data
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Passes all data to the underlying stream and hashes it:
+
+    Single bytes are collected in a buffer of 64 blocks (8 KiB)
+    and passed to the digest block-wise, large arrays are passed
+    directly. Arrays are written to the underlying stream as arrays
+    (FilterOutputStream writes them byte by byte).
+
+   Example code using this class:
+
+      Blake2bOutputStream out = new Blake2bOutputStream(anyOutputStream);
+      out.write( anyByteArray );
+      out.write( anyByte );
+      byte[] hash = new byte[64];
+      out.doFinal(hash, 0); // hash of all written bytes
+*/
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+public class Blake2bOutputStream extends FilterOutputStream {
+
+	private final static int BUFFER_SIZE = 64 * 128; // 64 blocks of Blake2b
+
+	private final Digest digest;
+
+	// written bytes, not yet processed by the digest:
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPos = 0;
+
+	/**
+	 * Hashes the data with unkeyed Blake2b (64 bytes)
+	 *
+	 * @param out	the underlying output stream
+	 */
+	public Blake2bOutputStream(OutputStream out) {
+		this(out, new Blake2bUnrolled());
+	}
+
+	/**
+	 * @param out		the underlying output stream
+	 * @param _digest	the digest to process the data
+	 */
+	public Blake2bOutputStream(OutputStream out, Digest _digest) {
+		super(out);
+		if (_digest == null) {
+			throw new IllegalArgumentException("Missing digest");
+		}
+		digest = _digest;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		out.write(b);
+		if (bufferPos == BUFFER_SIZE) {
+			digest.update(buffer, 0, BUFFER_SIZE);
+			bufferPos = 0;
+		}
+		buffer[bufferPos++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		out.write(b, off, len);
+		if (len <= BUFFER_SIZE - bufferPos) {
+			System.arraycopy(b, off, buffer, bufferPos, len);
+			bufferPos += len;
+		} else {
+			processBuffer();
+			digest.update(b, off, len);
+		}
+	}
+
+	// passes the buffered bytes to the digest
+	private void processBuffer() {
+		if (bufferPos > 0) {
+			digest.update(buffer, 0, bufferPos);
+			bufferPos = 0;
+		}
+	}
+
+	/**
+	 * Calculates the hash value of all written bytes
+	 * and resets the digest.
+	 *
+	 * @param hash		the hash value will be copied in this array
+	 * @param offset	start position of the array hash
+	 */
+	public void doFinal(byte[] hash, int offset) {
+		processBuffer();
+		digest.doFinal(hash, offset);
+		digest.reset();
+	}
+
+	/**
+	 * @return	the digest, buffered bytes are passed
+	 * 			to the digest before it is returned
+	 */
+	public Digest getDigest() {
+		processBuffer();
+		return digest;
+	}
+}
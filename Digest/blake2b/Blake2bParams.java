@@ -0,0 +1,73 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Precomputed parameters of Blake2b
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Immutable set of key, digest length, salt and personalization,
+    for example a domain separator used for many hash values:
+
+    The parameter block is XORed into the IV once. If a key is given,
+    the key block is also processed once. Instances of Blake2b
+    created from these parameters start and reset with a copy
+    of the precomputed chain value.
+    One instance can be shared by several threads.
+
+   Example code using this class:
+
+      Blake2bParams domain = new Blake2bParams(null, 32, salt, personalization);
+      Blake2b b = new Blake2bUnrolled(domain);
+      b.update( anyByteArray );
+      byte[] hash = new byte[32];
+      b.doFinal(hash, 0);
+      b.reset(); // copies the precomputed chain value
+*/
+
+
+public final class Blake2bParams {
+
+	// initial state, never updated:
+	// chain value after the parameter block (and the key block)
+	final Blake2b prototype;
+
+	/**
+	 * @param key				the key (0 - 64 bytes) or null
+	 * @param digestLength		the length of the hash value (1 - 64 bytes)
+	 * @param salt				the salt (16 bytes) or null
+	 * @param personalization	the personalization string (16 bytes) or null
+	 */
+	public Blake2bParams(
+			byte[] key,
+			int digestLength,
+			byte[] salt,
+			byte[] personalization) {
+
+		prototype = new Blake2b(key, digestLength, salt, personalization);
+		prototype.precompute();
+	}
+
+	/**
+	 * @return	the length of the hash value in bytes
+	 */
+	public int getDigestLength() {
+		return prototype.getOutputSize();
+	}
+}
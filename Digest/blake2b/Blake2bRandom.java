@@ -0,0 +1,234 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Random bit generator based on Blake2b
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Deterministic random bit generator for salts and tokens:
+
+    The state is a 64 byte key and a counter. Each generation
+    is the output of keyed Blake2Xb (key, personalization
+    "Blake2bRandom v1") of the counter: the output blocks are
+    keyed Blake2b in counter mode and large requests are computed
+    in parallel. Blake2Xb produces 64 bytes more than needed,
+    these bytes replace the key, so earlier outputs can not be
+    computed from the current state.
+
+    Small requests (up to 256 bytes, for example salts) are taken
+    from a buffer of 1024 bytes, which is generated at once.
+    Bytes are cleared in the buffer when they are returned.
+
+    Instances seeded by SecureRandom mix 64 new bytes of a shared
+    SecureRandom into the key every RESEED_INTERVAL generations.
+    Instances with an explicit seed are deterministic until
+    reseed() is called.
+
+    An instance is not thread-safe: current() returns the
+    instance of the calling thread, so threads do not share a lock.
+
+   Example code using this class:
+
+      byte[] salt = Blake2bRandom.current().nextBytes(16);
+      catena.hashPassword(pwd, salt, data, lambda, garlic, garlic, hash);
+*/
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class Blake2bRandom {
+
+	/**
+	 * Number of generations after which an instance seeded
+	 * by SecureRandom is reseeded
+	 */
+	public final static int RESEED_INTERVAL = 1 << 16;
+
+	private final static int KEY_LENGTH = 64;
+	private final static int SEED_LENGTH = 64;
+
+	// requests up to this length are taken from the buffer
+	private final static int SMALL_REQUEST = 256;
+	private final static int BUFFER_LENGTH = 1024;
+
+	// minimal length of requests to compute the blocks in parallel
+	private final static int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+	private final static byte[] PERSONALIZATION = {
+		'B', 'l', 'a', 'k', 'e', '2', 'b', 'R', 'a', 'n', 'd', 'o', 'm', ' ', 'v', '1' };
+
+	// source of seeds for all instances
+	private final static SecureRandom seedSource = new SecureRandom();
+
+	private final static ThreadLocal<Blake2bRandom> threadInstance =
+			ThreadLocal.withInitial(() -> new Blake2bRandom());
+
+	private final byte[] key = new byte[KEY_LENGTH];
+	// output for small requests, used bytes are zero:
+	private final byte[] buffer = new byte[BUFFER_LENGTH];
+	private int bufferPos = BUFFER_LENGTH; // empty
+	private long counter = 0;
+	private int generations = 0; // since the last reseed
+	private final boolean autoReseed;
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private ForkJoinPool pool = null;// common pool if null
+
+	/**
+	 * Seeded by SecureRandom, reseeded every RESEED_INTERVAL requests
+	 */
+	public Blake2bRandom() {
+		byte[] seed = new byte[SEED_LENGTH];
+		seedSource.nextBytes(seed);
+		mixKey(null, seed);
+		Arrays.fill(seed, (byte) 0);
+		autoReseed = true;
+	}
+
+	/**
+	 * Deterministic generator: the same seed gives the same output
+	 *
+	 * @param seed	the seed (at least 32 bytes of entropy)
+	 */
+	public Blake2bRandom(byte[] seed) {
+		if (seed == null || seed.length == 0) {
+			throw new IllegalArgumentException("Missing seed");
+		}
+		mixKey(null, seed);
+		autoReseed = false;
+	}
+
+	/**
+	 * @return	the generator of the calling thread
+	 */
+	public static Blake2bRandom current() {
+		return threadInstance.get();
+	}
+
+	/**
+	 * @param length	the number of bytes
+	 * @return			new random bytes
+	 */
+	public byte[] nextBytes(int length) {
+		byte[] out = new byte[length];
+		nextBytes(out, 0, length);
+		return out;
+	}
+
+	/**
+	 * Fills the array with random bytes
+	 *
+	 * @param out	the array to fill
+	 */
+	public void nextBytes(byte[] out) {
+		nextBytes(out, 0, out.length);
+	}
+
+	/**
+	 * Fills a part of the array with random bytes,
+	 * large requests are computed in parallel.
+	 *
+	 * @param out		the array to fill
+	 * @param offset	start position of the array out
+	 * @param len		number of bytes
+	 */
+	public void nextBytes(byte[] out, int offset, int len) {
+
+		if (len < 0 || offset < 0 || len > out.length - offset) {
+			throw new IllegalArgumentException("Invalid offset or length of output array");
+		}
+		if (len > SMALL_REQUEST) {
+			generate(out, offset, len);
+			return;
+		}
+		if (BUFFER_LENGTH - bufferPos < len) {
+			Arrays.fill(buffer, bufferPos, BUFFER_LENGTH, (byte) 0);
+			generate(buffer, 0, BUFFER_LENGTH);
+			bufferPos = 0;
+		}
+		System.arraycopy(buffer, bufferPos, out, offset, len);
+		Arrays.fill(buffer, bufferPos, bufferPos + len, (byte) 0);
+		bufferPos += len;
+	}
+
+	/**
+	 * Mixes new bytes of SecureRandom into the key
+	 */
+	public void reseed() {
+		byte[] seed = new byte[SEED_LENGTH];
+		seedSource.nextBytes(seed);
+		reseed(seed);
+		Arrays.fill(seed, (byte) 0);
+	}
+
+	/**
+	 * Mixes additional input into the key,
+	 * buffered bytes are discarded
+	 *
+	 * @param additionalInput	the input, for example a seed
+	 */
+	public void reseed(byte[] additionalInput) {
+		if (additionalInput == null) {
+			throw new IllegalArgumentException("Missing input");
+		}
+		mixKey(key, additionalInput);
+		generations = 0;
+		// discard output of the old key:
+		Arrays.fill(buffer, (byte) 0);
+		bufferPos = BUFFER_LENGTH;
+	}
+
+	/**
+	 * @param _parallelThreshold	minimal length of requests
+	 * 								to compute the blocks in parallel
+	 * @param _pool					the pool to compute the blocks,
+	 * 								or null for the common pool
+	 */
+	public void setParallelism(int _parallelThreshold, ForkJoinPool _pool) {
+		if (_parallelThreshold < 1) {
+			throw new IllegalArgumentException("Invalid threshold (required: > 0)");
+		}
+		parallelThreshold = _parallelThreshold;
+		pool = _pool;
+	}
+
+	// output of the counter, replaces the key
+	private void generate(byte[] out, int offset, int len) {
+
+		if (autoReseed == true && generations >= RESEED_INTERVAL) {
+			reseed();
+		}
+		Blake2Xb xof = new Blake2Xb(key, (long) len + KEY_LENGTH, null, PERSONALIZATION,
+				parallelThreshold, pool);
+		xof.update(Blake2b.long2bytes(counter++));
+		xof.squeeze(out, offset, len);
+		xof.squeeze(key, 0, KEY_LENGTH);
+		generations++;
+	}
+
+	// key = Blake2b(oldKey, input), unkeyed if oldKey is null
+	private void mixKey(byte[] oldKey, byte[] input) {
+		Blake2b digest = new Blake2bUnrolled(oldKey, KEY_LENGTH, null, PERSONALIZATION);
+		digest.update(input);
+		digest.doFinal(key, 0);
+	}
+}
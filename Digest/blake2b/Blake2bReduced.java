@@ -0,0 +1,2005 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Round-reduced Hash Function Blake2b for Catena
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Compression function of Blake2b with 1 - 12 rounds for Catena's H':
+
+    Each hash processes two inputs of 64 bytes as one block of 128 bytes
+    (unkeyed, digest length 64, last block flag). The chain value and
+    the byte counter are kept between the hashes until reset().
+    The first round uses the message permutation vIndex modulo 12,
+    the following rounds the next permutations (modulo 12).
+    So 1 round is the H' of Catena (Blake2b_1, Catena_Blake2b_1),
+    12 rounds with vIndex 0 after reset() are the complete Blake2b.
+
+    The rounds are fully unrolled routines, one for each permutation
+    (the permutations 10 and 11 are equal to 0 and 1). For one round
+    there is a second set of routines, which keep the internal state
+    in local variables only.
+
+    This class implements the interfaces of Catena v3.3 (FastHash,
+    LongFastHash) and v3.2 (ReducedDigest: setVertexIndex, two
+    updates of 64 bytes, doFinal).
+
+   Example code using this class:
+
+      // Catena with 2 rounds for H':
+      Catena catena = new CatenaBRG(new Blake2b(), new Blake2bReduced(2));
+*/
+
+import java.util.Arrays;
+
+
+public class Blake2bReduced implements LongFastHash, ReducedDigest {
+
+	private final static long blake2b_IV[] =
+			// Blake2b Initialization Vector:
+			// Produced from the square root of primes 2, 3, 5, 7, 11, 13, 17, 19.
+			// The same as SHA-512 IV.
+		{
+		  0x6a09e667f3bcc908L, 0xbb67ae8584caa73bL,
+		  0x3c6ef372fe94f82bL, 0xa54ff53a5f1d36f1L,
+		  0x510e527fade682d1L, 0x9b05688c2b3e6c1fL,
+		  0x1f83d9abfb41bd6bL, 0x5be0cd19137e2179L
+		};
+	// IV[0] with the parameter block: digest length 64, fanout 1, depth 1
+	private final static long blake2b_IV0 = 0x6a09e667f2bdc948L;
+
+	private final static int BLOCK_LENGTH_BYTES = 128;// bytes
+	private final static int H_LEN = 64;
+	private final static int H_WORDS = 8;
+	private final static int PERMUTATIONS = 12;
+
+	private final int rounds;
+
+	private int vIndex = 0; // permutation of the first round (0 - 11)
+
+	private long[] chainValue = new long[8]; // in the Blake2b paper it is called: h
+	private long[] v = new long[16]; // internal state
+	// message words, reused for every compression:
+	private long[] m = new long[16];
+	private boolean halfBlock = false; // for update(): first input is set
+
+	private long t0 = 0L; // holds last significant bits, counter (counts bytes)
+	private long t1 = 0L; // counter: Length up to 2^128 are supported
+
+	/**
+	 * One round, the H' of Catena
+	 */
+	public Blake2bReduced() {
+		this(1);
+	}
+
+	/**
+	 * @param _rounds	the number of rounds (1 - 12)
+	 */
+	public Blake2bReduced(int _rounds) {
+		if (_rounds < 1 || _rounds > 12) {
+			throw new IllegalArgumentException("Invalid number of rounds (required: 1 - 12)");
+		}
+		rounds = _rounds;
+		init();
+	}
+
+	// initialize chainValue
+	private void init() {
+		chainValue[0] = blake2b_IV0;
+		System.arraycopy(blake2b_IV, 1, chainValue, 1, 7);
+	}
+
+	//=========================================================================
+	// FastHash, LongFastHash:
+
+	@Override
+	public void hash(int vIndex, byte[] input1, int inIndex1, byte[] input2,
+			int inIndex2, byte[] hash, int outIndex) {
+		setVertexIndex(vIndex);
+		// read the message words first: the output may overlap the inputs
+		for (int j = 0; j < H_WORDS; j++) {
+			m[j] = Blake2b.bytes2long(input1, inIndex1 + j * 8);
+			m[j + H_WORDS] = Blake2b.bytes2long(input2, inIndex2 + j * 8);
+		}
+		compress();
+		writeOutput(hash, outIndex);
+	}
+
+	@Override
+	public void hash(int vIndex, long[] input1, int inIndex1, long[] input2,
+			int inIndex2, long[] hash, int outIndex) {
+		setVertexIndex(vIndex);
+		// copy first: the output may overlap the inputs
+		System.arraycopy(input1, inIndex1, m, 0, H_WORDS);
+		System.arraycopy(input2, inIndex2, m, H_WORDS, H_WORDS);
+		compress();
+		System.arraycopy(chainValue, 0, hash, outIndex, H_WORDS);
+	}
+
+	//=========================================================================
+	// ReducedDigest:
+
+	/**
+	 * Sets the permutation of the first round for the next doFinal()
+	 *
+	 * @param _vIndex	the vertex index (modulo 12)
+	 */
+	@Override
+	public void setVertexIndex(int _vIndex) {
+		vIndex = _vIndex % PERMUTATIONS;
+		if (vIndex < 0) {
+			vIndex += PERMUTATIONS;
+		}
+	}
+
+	/**
+	 * Processes 64 bytes: first or second half of the block
+	 *
+	 * @param message	the message (at least 64 bytes)
+	 */
+	@Override
+	public void update(byte[] message) {
+		update(message, 0, H_LEN);
+	}
+
+	/**
+	 * Ignored: the inputs are always 64 bytes
+	 */
+	@Override
+	public void update(byte b) {}
+
+	/**
+	 * Processes 64 bytes: first or second half of the block
+	 *
+	 * @param message	the message
+	 * @param offset	position of message to start from
+	 * @param len		number of bytes, always 64
+	 */
+	@Override
+	public void update(byte[] message, int offset, int len) {
+		int start = (halfBlock == false) ? 0 : H_WORDS;
+		for (int j = 0; j < H_WORDS; j++) {
+			m[start + j] = Blake2b.bytes2long(message, offset + j * 8);
+		}
+		halfBlock = ! halfBlock;
+	}
+
+	/**
+	 * Compresses the two inputs of update()
+	 *
+	 * @param out		the hash value (64 bytes) will be copied in this array
+	 * @param outOffset	start position of the array out
+	 */
+	@Override
+	public void doFinal(byte[] out, int outOffset) {
+		compress();
+		halfBlock = false;
+		writeOutput(out, outOffset);
+	}
+
+	//=========================================================================
+
+	/**
+	 * Reset the hash function to the initial chain value.
+	 */
+	@Override
+	public void reset() {
+		t0 = 0L;
+		t1 = 0L;
+		halfBlock = false;
+		Arrays.fill(v, 0L);
+		Arrays.fill(m, 0L);
+		init();
+	}
+
+	@Override
+	public String getName() {
+		return "Blake2b_" + rounds;
+	}
+
+	@Override
+	public int getOutputSize() {
+		return H_LEN;
+	}
+
+	/**
+	 * @return	the number of rounds
+	 */
+	public int getRounds() {
+		return rounds;
+	}
+
+	private void writeOutput(byte[] out, int outOffset) {
+		for (int i = 0; i < H_WORDS; i++) {
+			Blake2b.long2bytes(chainValue[i], out, outOffset + i * 8);
+		}
+	}
+
+	// compresses the message words m as next block (last block flag set)
+	private void compress() {
+
+		t0 += BLOCK_LENGTH_BYTES;
+		// simplified because increment is always 128
+		if ( (t0 == 0)){
+			t1++;
+		}
+		if (rounds == 1) { // H' of Catena: without internal state array
+			switch (vIndex) {
+			case 0:
+			case 10:
+				singleRound0(chainValue, m, t0, t1);
+				break;
+			case 1:
+			case 11:
+				singleRound1(chainValue, m, t0, t1);
+				break;
+			case 2:
+				singleRound2(chainValue, m, t0, t1);
+				break;
+			case 3:
+				singleRound3(chainValue, m, t0, t1);
+				break;
+			case 4:
+				singleRound4(chainValue, m, t0, t1);
+				break;
+			case 5:
+				singleRound5(chainValue, m, t0, t1);
+				break;
+			case 6:
+				singleRound6(chainValue, m, t0, t1);
+				break;
+			case 7:
+				singleRound7(chainValue, m, t0, t1);
+				break;
+			case 8:
+				singleRound8(chainValue, m, t0, t1);
+				break;
+			case 9:
+				singleRound9(chainValue, m, t0, t1);
+				break;
+			default:
+				throw new IllegalStateException("Invalid vertex index");
+			}
+			return;
+		}
+		System.arraycopy(chainValue, 0, v, 0, 8);
+		System.arraycopy(blake2b_IV, 0, v, 8, 4);
+		v[12] = t0 ^ blake2b_IV[4];
+		v[13] = t1 ^ blake2b_IV[5];
+		v[14] = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6];
+		v[15] = blake2b_IV[7];
+
+		int permutation = vIndex;
+		for (int round = 0; round < rounds; round++) {
+			// each permutation is compiled into its own routine:
+			switch (permutation) {
+			case 0:
+			case 10:
+				round0(v, m);
+				break;
+			case 1:
+			case 11:
+				round1(v, m);
+				break;
+			case 2:
+				round2(v, m);
+				break;
+			case 3:
+				round3(v, m);
+				break;
+			case 4:
+				round4(v, m);
+				break;
+			case 5:
+				round5(v, m);
+				break;
+			case 6:
+				round6(v, m);
+				break;
+			case 7:
+				round7(v, m);
+				break;
+			case 8:
+				round8(v, m);
+				break;
+			case 9:
+				round9(v, m);
+				break;
+			default:
+				throw new IllegalStateException("Invalid vertex index");
+			}
+			permutation = (permutation == PERMUTATIONS - 1) ? 0 : permutation + 1;
+		}
+		for (int i = 0; i < 8; i++) {
+			chainValue[i] ^= v[i] ^ v[i + 8];
+		}
+	}
+
+	// single round with permutation 0 (and 10), updates the chain value h:
+	private static void singleRound0(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[0];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[1];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[2];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[3];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[4];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[5];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[6];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[7];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[8];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[9];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[10];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[11];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[12];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[13];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[14];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[15];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 1 (and 11), updates the chain value h:
+	private static void singleRound1(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[14];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[10];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[4];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[8];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[9];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[15];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[13];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[6];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[1];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[12];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[0];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[2];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[11];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[7];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[5];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[3];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 2, updates the chain value h:
+	private static void singleRound2(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[11];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[8];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[12];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[0];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[5];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[2];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[15];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[13];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[10];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[14];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[3];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[6];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[7];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[1];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[9];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[4];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 3, updates the chain value h:
+	private static void singleRound3(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[7];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[9];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[3];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[1];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[13];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[12];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[11];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[14];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[2];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[6];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[5];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[10];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[4];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[0];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[15];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[8];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 4, updates the chain value h:
+	private static void singleRound4(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[9];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[0];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[5];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[7];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[2];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[4];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[10];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[15];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[14];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[1];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[11];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[12];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[6];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[8];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[3];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[13];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 5, updates the chain value h:
+	private static void singleRound5(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[2];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[12];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[6];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[10];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[0];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[11];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[8];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[3];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[4];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[13];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[7];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[5];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[15];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[14];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[1];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[9];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 6, updates the chain value h:
+	private static void singleRound6(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[12];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[5];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[1];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[15];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[14];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[13];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[4];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[10];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[0];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[7];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[6];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[3];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[9];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[2];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[8];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[11];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 7, updates the chain value h:
+	private static void singleRound7(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[13];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[11];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[7];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[14];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[12];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[1];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[3];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[9];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[5];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[0];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[15];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[4];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[8];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[6];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[2];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[10];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 8, updates the chain value h:
+	private static void singleRound8(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[6];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[15];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[14];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[9];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[11];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[3];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[0];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[8];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[12];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[2];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[13];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[7];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[1];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[4];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[10];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[5];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// single round with permutation 9, updates the chain value h:
+	private static void singleRound9(long[] h, long[] m, long t0, long t1) {
+
+		long v0 = h[0], v1 = h[1], v2 = h[2], v3 = h[3], 
+			v4 = h[4], v5 = h[5], v6 = h[6], v7 = h[7], 
+			v8 = blake2b_IV[0], v9 = blake2b_IV[1], v10 = blake2b_IV[2], v11 = blake2b_IV[3], 
+			v12 = t0 ^ blake2b_IV[4], v13 = t1 ^ blake2b_IV[5], 
+			v14 = 0xFFFFFFFFFFFFFFFFL ^ blake2b_IV[6], v15 = blake2b_IV[7];
+
+		// columns:
+		v0 += v4 + m[10];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[2];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[8];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[4];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[7];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[6];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[1];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[5];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[15];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[11];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[9];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[14];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[3];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[12];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[13];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[0];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		h[0] ^= v0 ^ v8;
+		h[1] ^= v1 ^ v9;
+		h[2] ^= v2 ^ v10;
+		h[3] ^= v3 ^ v11;
+		h[4] ^= v4 ^ v12;
+		h[5] ^= v5 ^ v13;
+		h[6] ^= v6 ^ v14;
+		h[7] ^= v7 ^ v15;
+	}
+	
+	// round with permutation 0 (and 10):
+	private static void round0(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[0];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[1];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[2];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[3];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[4];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[5];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[6];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[7];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[8];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[9];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[10];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[11];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[12];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[13];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[14];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[15];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 1 (and 11):
+	private static void round1(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[14];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[10];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[4];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[8];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[9];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[15];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[13];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[6];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[1];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[12];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[0];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[2];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[11];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[7];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[5];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[3];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 2:
+	private static void round2(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[11];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[8];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[12];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[0];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[5];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[2];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[15];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[13];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[10];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[14];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[3];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[6];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[7];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[1];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[9];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[4];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 3:
+	private static void round3(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[7];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[9];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[3];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[1];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[13];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[12];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[11];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[14];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[2];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[6];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[5];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[10];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[4];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[0];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[15];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[8];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 4:
+	private static void round4(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[9];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[0];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[5];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[7];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[2];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[4];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[10];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[15];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[14];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[1];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[11];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[12];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[6];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[8];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[3];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[13];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 5:
+	private static void round5(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[2];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[12];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[6];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[10];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[0];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[11];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[8];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[3];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[4];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[13];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[7];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[5];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[15];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[14];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[1];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[9];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 6:
+	private static void round6(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[12];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[5];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[1];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[15];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[14];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[13];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[4];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[10];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[0];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[7];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[6];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[3];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[9];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[2];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[8];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[11];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 7:
+	private static void round7(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[13];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[11];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[7];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[14];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[12];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[1];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[3];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[9];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[5];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[0];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[15];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[4];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[8];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[6];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[2];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[10];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 8:
+	private static void round8(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[6];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[15];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[14];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[9];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[11];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[3];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[0];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[8];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[12];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[2];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[13];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[7];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[1];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[4];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[10];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[5];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+	
+	// round with permutation 9:
+	private static void round9(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+
+		// columns:
+		v0 += v4 + m[10];
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m[2];
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m[8];
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m[4];
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m[7];
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m[6];
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m[1];
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m[5];
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m[15];
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m[11];
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m[9];
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m[14];
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m[3];
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m[12];
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m[13];
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m[0];
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+}
@@ -0,0 +1,276 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Tree Hashing Mode of Hash Function Blake2b
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Parallel driver for the Tree Hashing Mode of Blake2b
+    (BLAKE2 paper, section 2.10):
+
+    The input is split into leaves of leafLength bytes (the last
+    leaf may be shorter, an empty input gives one empty leaf).
+    The leaves are hashed with node depth 0 and node offset i,
+    the inner nodes of layer d hash the concatenated hash values of
+    fanout nodes of layer d-1 with node depth d.
+    All nodes use the same parameter block except node offset
+    and node depth, the last node of each layer sets the flag f1.
+    Leaves and inner nodes use innerHashLength as digest length,
+    the root uses digestLength.
+
+    The root is the single node of layer depth-1. If the depth is
+    255 (unlimited), the root is the first layer above the leaves with
+    only one node. A fanout of 0 (unlimited) hashes all nodes of a
+    layer in one node.
+
+    A limited depth limits the input: at most
+    leafLength * fanout^(depth-1) bytes (for example 8192 bytes for
+    fanout 2, depth 2, leaves of 4096 bytes), larger inputs throw
+    an IllegalArgumentException. Use depth 255 for inputs of
+    arbitrary length.
+
+    The nodes of a layer are computed in parallel on a ForkJoinPool.
+
+    Example (fanout 2, depth 2, leaves of 4096 bytes, as
+    the example of the Python documentation of hashlib):
+
+      Blake2bTree tree = new Blake2bTree(null, 64, null, null, 2, 2, 4096, 64);
+      byte[] hash = new byte[64];
+      tree.hash(anyByteArray, 0, anyByteArray.length, hash, 0);
+*/
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+public class Blake2bTree {
+
+	private final static int UNLIMITED_DEPTH = 255;
+
+	// minimal number of bytes for one task
+	private final static int DEFAULT_TASK_LENGTH = 64 * 1024;
+
+	private byte[] key;
+	private int digestLength;
+	private byte[] salt;
+	private byte[] personalization;
+	private int fanout;
+	private int depth;
+	private int leafLength;
+	private int innerHashLength;
+
+	private ForkJoinPool pool = null;// common pool if null
+
+	/**
+	 * Tree hashing with the given parameters
+	 *
+	 * @param _key				the key (0 - 64 bytes) or null
+	 * @param _digestLength		the length of the hash value (1 - 64 bytes)
+	 * @param _salt				the salt (16 bytes) or null
+	 * @param _personalization	the personalization string (16 bytes) or null
+	 * @param _fanout			the fanout (0 - 255, 0 means unlimited)
+	 * @param _depth			the maximal depth (2 - 255, 255 means unlimited),
+	 * 							the input is limited to leafLength * fanout^(depth-1) bytes
+	 * @param _leafLength		the byte length of leaves (1 - 2^31-1)
+	 * @param _innerHashLength	the inner hash length (1 - 64 bytes)
+	 */
+	public Blake2bTree(
+			byte[] _key,
+			int _digestLength,
+			byte[] _salt,
+			byte[] _personalization,
+			int _fanout,
+			int _depth,
+			int _leafLength,
+			int _innerHashLength) {
+
+		if (_fanout == 1) {
+			throw new IllegalArgumentException("Invalid fanout for tree hashing (required: 0, 2 - 255)");
+		}
+		if (_depth < 2) {
+			throw new IllegalArgumentException("Invalid depth for tree hashing (required: 2 - 255)");
+		}
+		if (_leafLength < 1) {
+			throw new IllegalArgumentException("Invalid leaf length for tree hashing (required: > 0)");
+		}
+		if (_innerHashLength < 1) {
+			throw new IllegalArgumentException("Invalid inner hash length for tree hashing (required: 1 - 64)");
+		}
+		key = (_key == null) ? null : _key.clone();
+		digestLength = _digestLength;
+		salt = (_salt == null) ? null : _salt.clone();
+		personalization = (_personalization == null) ? null : _personalization.clone();
+		fanout = _fanout;
+		depth = _depth;
+		leafLength = _leafLength;
+		innerHashLength = _innerHashLength;
+		// check the remaining parameters:
+		newNode(digestLength, 0L, 0, true);
+	}
+
+	/**
+	 * @param _pool		the pool to compute the nodes,
+	 * 					or null for the common pool
+	 */
+	public void setPool(ForkJoinPool _pool) {
+		pool = _pool;
+	}
+
+	/**
+	 * Computes the hash value of the tree
+	 *
+	 * @param message		the input
+	 * @param offset		position of message to start from
+	 * @param len			number of bytes to be processed
+	 * @param out			the hash value (digestLength bytes) will be copied in this array
+	 * @param outOffset		start position of the array out
+	 */
+	public void hash(byte[] message, int offset, int len, byte[] out, int outOffset) {
+
+		if (message == null) {
+			message = new byte[0];
+		}
+		ForkJoinPool p = (pool == null) ? ForkJoinPool.commonPool() : pool;
+
+		// layer 0: the leaves
+		int numberOfNodes = (len == 0) ? 1 : (int) (((long) len + leafLength - 1) / leafLength);
+		byte[] layer = new byte[layerLength(numberOfNodes)];
+		p.invoke(new NodeTask(this, message, offset, len, leafLength, 0,
+				0, numberOfNodes, numberOfNodes, layer));
+
+		// inner layers:
+		int nodeDepth = 1;
+		while (true) {
+			int childrenPerNode = (fanout == 0) ? numberOfNodes : fanout;
+			int parents = (numberOfNodes + childrenPerNode - 1) / childrenPerNode;
+
+			boolean isRoot = (depth == UNLIMITED_DEPTH)
+					? parents == 1
+					: nodeDepth == depth - 1;
+			if (isRoot && parents != 1) {
+				throw new IllegalArgumentException("Input too large for depth " + depth);
+			}
+			if (isRoot) {
+				Blake2b root = newNode(digestLength, 0L, nodeDepth, true);
+				root.update(layer, 0, layer.length);
+				root.doFinal(out, outOffset);
+				return;
+			}
+			if (nodeDepth == UNLIMITED_DEPTH - 1) {
+				throw new IllegalArgumentException("Input too large for unlimited depth");
+			}
+			byte[] parentLayer = new byte[layerLength(parents)];
+			p.invoke(new NodeTask(this, layer, 0, layer.length,
+					childrenPerNode * innerHashLength, nodeDepth,
+					0, parents, parents, parentLayer));
+			layer = parentLayer;
+			numberOfNodes = parents;
+			nodeDepth++;
+		}
+	}
+
+	/**
+	 * Computes the hash value of the tree
+	 *
+	 * @param message	the input
+	 * @return			the hash value (digestLength bytes)
+	 */
+	public byte[] hash(byte[] message) {
+		byte[] out = new byte[digestLength];
+		hash(message, 0, (message == null) ? 0 : message.length, out, 0);
+		return out;
+	}
+
+	// length of a layer of inner hash values
+	private int layerLength(int numberOfNodes) {
+		long length = (long) numberOfNodes * innerHashLength;
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many leaves, use a larger leaf length");
+		}
+		return (int) length;
+	}
+
+	// node with all parameters of this tree
+	private Blake2b newNode(int nodeDigestLength, long nodeOffset, int nodeDepth, boolean lastNode) {
+		Blake2b node = new Blake2bUnrolled(key, nodeDigestLength, salt, personalization,
+				fanout, depth, leafLength, nodeOffset, nodeDepth, innerHashLength);
+		node.setLastNode(lastNode);
+		return node;
+	}
+
+	/**
+	 * Computes a range of nodes of one layer:
+	 * node i hashes the bytes [i * nodeInputLength, (i+1) * nodeInputLength)
+	 * of the input (the previous layer or the message).
+	 * Only used inside hash(), never serialized.
+	 */
+	private static class NodeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Blake2bTree tree;
+		private final byte[] input;
+		private final int inputOffset;
+		private final int inputLength;
+		private final int nodeInputLength;
+		private final int nodeDepth;
+		private final int firstNode;
+		private final int endNode; // exclusive
+		private final int numberOfNodes; // in this layer
+		private final byte[] layer; // output
+
+		NodeTask(Blake2bTree _tree, byte[] _input, int _inputOffset, int _inputLength,
+				int _nodeInputLength, int _nodeDepth,
+				int _firstNode, int _endNode, int _numberOfNodes, byte[] _layer) {
+			tree = _tree;
+			input = _input;
+			inputOffset = _inputOffset;
+			inputLength = _inputLength;
+			nodeInputLength = _nodeInputLength;
+			nodeDepth = _nodeDepth;
+			firstNode = _firstNode;
+			endNode = _endNode;
+			numberOfNodes = _numberOfNodes;
+			layer = _layer;
+		}
+
+		@Override
+		protected void compute() {
+
+			int count = endNode - firstNode;
+			if (count > 1 && (long) count * nodeInputLength > DEFAULT_TASK_LENGTH) {
+				int middle = firstNode + count / 2;
+				invokeAll(
+						new NodeTask(tree, input, inputOffset, inputLength, nodeInputLength,
+								nodeDepth, firstNode, middle, numberOfNodes, layer),
+						new NodeTask(tree, input, inputOffset, inputLength, nodeInputLength,
+								nodeDepth, middle, endNode, numberOfNodes, layer));
+				return;
+			}
+			for (int i = firstNode; i < endNode; i++) {
+				long start = (long) i * nodeInputLength;
+				int len = (int) Math.min(nodeInputLength, inputLength - start);
+				Blake2b node = tree.newNode(tree.innerHashLength, i, nodeDepth, i == numberOfNodes - 1);
+				node.update(input, inputOffset + (int) start, len);
+				node.doFinal(layer, i * tree.innerHashLength);
+			}
+		}
+	}
+}
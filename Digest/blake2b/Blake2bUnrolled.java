@@ -0,0 +1,979 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Hash Function Blake2b with unrolled compression function
+ * 
+ * Copyright (C) 2016  Axel von dem Bruch
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License 
+ * along with this library.
+ */
+
+
+/*  Same function as Blake2b, only the compression function is replaced: 
+    The internal state v0..v15 and the message words m0..m15 are 
+    held in local variables and the message permutation sigma is 
+    unrolled, so the JIT can keep the state in registers. 
+    
+    The twelve rounds are split into two methods of six rounds, 
+    because HotSpot does not compile methods with more than 
+    8000 bytes of bytecode (HugeMethodLimit). 
+    
+    Use this class like Blake2b: 
+    
+      Digest b = new Blake2bUnrolled(); // no key, no salt, no personalization
+      b.update( anyByteArray );
+      byte[] hash = new byte[64];
+      b.doFinal(hash, 0);
+*/
+
+
+public class Blake2bUnrolled extends Blake2b {
+	
+	private long[] v = new long[16]; // internal state
+
+	public Blake2bUnrolled() {
+		super();
+	}
+
+	public Blake2bUnrolled(byte[] key) {
+		super(key);
+	}
+
+	public Blake2bUnrolled(
+			byte[] key, 
+			int _digestLength, 
+			byte[] _salt, 
+			byte[] _personalization) {
+		super(key, _digestLength, _salt, _personalization);
+	}
+
+	public Blake2bUnrolled(
+			byte[] key, 
+			int _digestLength, 
+			byte[] _salt, 
+			byte[] _personalization,
+			int _fanout, 
+			int _depth, 
+			long _leafLength, 
+			long _nodeOffset, 
+			int _nodeDepth, 
+			int _innerHashLength) {
+		super(key, _digestLength, _salt, _personalization, 
+				_fanout, _depth, _leafLength, _nodeOffset, _nodeDepth, _innerHashLength);
+	}
+
+	/**
+	 * Copy constructor: copies the intermediate state
+	 * 
+	 * @param t		the digest to copy
+	 */
+	public Blake2bUnrolled(Blake2b t) {
+		super(t);
+	}
+
+	@Override
+	public Blake2b copy() {
+		return new Blake2bUnrolled(this);
+	}
+
+	/**
+	 * Creates a digest with precomputed parameters
+	 * 
+	 * @param params	the parameters (key, digest length, salt, personalization)
+	 */
+	public Blake2bUnrolled(Blake2bParams params) {
+		super(params);
+	}
+
+	@Override
+	protected void compress(long[] h, long[] m, long t0, long t1, long f0, long f1) {
+		
+		v[0] = h[0]; v[1] = h[1]; v[2] = h[2]; v[3] = h[3];
+		v[4] = h[4]; v[5] = h[5]; v[6] = h[6]; v[7] = h[7];
+		v[8] = blake2b_IV[0]; 
+		v[9] = blake2b_IV[1];
+		v[10] = blake2b_IV[2];
+		v[11] = blake2b_IV[3];
+		v[12] = t0 ^ blake2b_IV[4];
+		v[13] = t1 ^ blake2b_IV[5];
+		v[14] = f0 ^ blake2b_IV[6];
+		v[15] = f1 ^ blake2b_IV[7];
+		
+		firstRounds(v, m);
+		lastRounds(v, m);
+
+		h[0] ^= v[0] ^ v[8];
+		h[1] ^= v[1] ^ v[9];
+		h[2] ^= v[2] ^ v[10];
+		h[3] ^= v[3] ^ v[11];
+		h[4] ^= v[4] ^ v[12];
+		h[5] ^= v[5] ^ v[13];
+		h[6] ^= v[6] ^ v[14];
+		h[7] ^= v[7] ^ v[15];
+	}
+	
+	// rounds 0 - 5
+	private static void firstRounds(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+		long m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3], 
+			m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7], 
+			m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11], 
+			m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+
+		// round 0:
+		// columns:
+		v0 += v4 + m0;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m1;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m2;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m3;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m4;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m5;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m6;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m7;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m8;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m9;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m10;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m11;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m12;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m13;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m14;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m15;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 1:
+		// columns:
+		v0 += v4 + m14;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m10;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m4;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m8;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m9;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m15;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m13;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m6;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m1;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m12;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m0;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m2;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m11;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m7;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m5;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m3;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 2:
+		// columns:
+		v0 += v4 + m11;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m8;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m12;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m0;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m5;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m2;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m15;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m13;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m10;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m14;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m3;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m6;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m7;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m1;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m9;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m4;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 3:
+		// columns:
+		v0 += v4 + m7;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m9;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m3;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m1;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m13;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m12;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m11;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m14;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m2;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m6;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m5;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m10;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m4;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m0;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m15;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m8;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 4:
+		// columns:
+		v0 += v4 + m9;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m0;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m5;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m7;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m2;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m4;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m10;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m15;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m14;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m1;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m11;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m12;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m6;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m8;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m3;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m13;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 5:
+		// columns:
+		v0 += v4 + m2;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m12;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m6;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m10;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m0;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m11;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m8;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m3;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m4;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m13;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m7;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m5;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m15;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m14;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m1;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m9;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+
+	// rounds 6 - 11
+	private static void lastRounds(long[] v, long[] m) {
+
+		long v0 = v[0], v1 = v[1], v2 = v[2], v3 = v[3], 
+			v4 = v[4], v5 = v[5], v6 = v[6], v7 = v[7], 
+			v8 = v[8], v9 = v[9], v10 = v[10], v11 = v[11], 
+			v12 = v[12], v13 = v[13], v14 = v[14], v15 = v[15];
+		long m0 = m[0], m1 = m[1], m2 = m[2], m3 = m[3], 
+			m4 = m[4], m5 = m[5], m6 = m[6], m7 = m[7], 
+			m8 = m[8], m9 = m[9], m10 = m[10], m11 = m[11], 
+			m12 = m[12], m13 = m[13], m14 = m[14], m15 = m[15];
+
+		// round 6:
+		// columns:
+		v0 += v4 + m12;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m5;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m1;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m15;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m14;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m13;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m4;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m10;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m0;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m7;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m6;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m3;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m9;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m2;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m8;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m11;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 7:
+		// columns:
+		v0 += v4 + m13;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m11;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m7;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m14;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m12;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m1;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m3;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m9;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m5;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m0;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m15;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m4;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m8;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m6;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m2;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m10;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 8:
+		// columns:
+		v0 += v4 + m6;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m15;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m14;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m9;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m11;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m3;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m0;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m8;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m12;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m2;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m13;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m7;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m1;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m4;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m10;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m5;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 9:
+		// columns:
+		v0 += v4 + m10;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m2;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m8;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m4;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m7;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m6;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m1;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m5;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m15;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m11;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m9;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m14;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m3;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m12;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m13;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m0;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 10:
+		// columns:
+		v0 += v4 + m0;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m1;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m2;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m3;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m4;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m5;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m6;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m7;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m8;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m9;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m10;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m11;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m12;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m13;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m14;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m15;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		// round 11:
+		// columns:
+		v0 += v4 + m14;
+		v12 = Long.rotateRight(v12 ^ v0, 32);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 24);
+		v0 += v4 + m10;
+		v12 = Long.rotateRight(v12 ^ v0, 16);
+		v8 += v12;
+		v4 = Long.rotateRight(v4 ^ v8, 63);
+		v1 += v5 + m4;
+		v13 = Long.rotateRight(v13 ^ v1, 32);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 24);
+		v1 += v5 + m8;
+		v13 = Long.rotateRight(v13 ^ v1, 16);
+		v9 += v13;
+		v5 = Long.rotateRight(v5 ^ v9, 63);
+		v2 += v6 + m9;
+		v14 = Long.rotateRight(v14 ^ v2, 32);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 24);
+		v2 += v6 + m15;
+		v14 = Long.rotateRight(v14 ^ v2, 16);
+		v10 += v14;
+		v6 = Long.rotateRight(v6 ^ v10, 63);
+		v3 += v7 + m13;
+		v15 = Long.rotateRight(v15 ^ v3, 32);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 24);
+		v3 += v7 + m6;
+		v15 = Long.rotateRight(v15 ^ v3, 16);
+		v11 += v15;
+		v7 = Long.rotateRight(v7 ^ v11, 63);
+		// diagonals:
+		v0 += v5 + m1;
+		v15 = Long.rotateRight(v15 ^ v0, 32);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 24);
+		v0 += v5 + m12;
+		v15 = Long.rotateRight(v15 ^ v0, 16);
+		v10 += v15;
+		v5 = Long.rotateRight(v5 ^ v10, 63);
+		v1 += v6 + m0;
+		v12 = Long.rotateRight(v12 ^ v1, 32);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 24);
+		v1 += v6 + m2;
+		v12 = Long.rotateRight(v12 ^ v1, 16);
+		v11 += v12;
+		v6 = Long.rotateRight(v6 ^ v11, 63);
+		v2 += v7 + m11;
+		v13 = Long.rotateRight(v13 ^ v2, 32);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 24);
+		v2 += v7 + m7;
+		v13 = Long.rotateRight(v13 ^ v2, 16);
+		v8 += v13;
+		v7 = Long.rotateRight(v7 ^ v8, 63);
+		v3 += v4 + m5;
+		v14 = Long.rotateRight(v14 ^ v3, 32);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 24);
+		v3 += v4 + m3;
+		v14 = Long.rotateRight(v14 ^ v3, 16);
+		v9 += v14;
+		v4 = Long.rotateRight(v4 ^ v9, 63);
+
+		v[0] = v0; v[1] = v1; v[2] = v2; v[3] = v3;
+		v[4] = v4; v[5] = v5; v[6] = v6; v[7] = v7;
+		v[8] = v8; v[9] = v9; v[10] = v10; v[11] = v11;
+		v[12] = v12; v[13] = v13; v[14] = v14; v[15] = v15;
+	}
+}
@@ -0,0 +1,307 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Hash Function Blake2bp
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Blake2bp is the 4-way parallel mode of Blake2b:
+    The input is split into blocks of 128 bytes, block i is processed
+    by leaf i mod 4. The four leaf hash values (64 bytes each) are
+    hashed by the root. Leaves and root use the Tree Hashing Mode with
+    fanout 4, depth 2 and inner hash length 64.
+    The result differs from Blake2b.
+
+    Leaves and root use the unrolled compression function of Blake2bUnrolled.
+    Inputs with a length of at least the threshold (default 64 KiB)
+    are processed by the four leaves in parallel on a ForkJoinPool.
+
+    Reference Implementation: https://github.com/BLAKE2/BLAKE2
+
+   Example code using this class:
+
+      Blake2bp b = new Blake2bp(); // no key, digest length 64
+      b.update( anyLargeByteArray );
+      byte[] hash = new byte[64];// full length of hash value
+      b.doFinal(hash, 0); // result now holds the hash value (64 byte)
+*/
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+public class Blake2bp implements Digest {
+
+	private final static int PARALLELISM_DEGREE = 4;
+	private final static int BLOCK_LENGTH_BYTES = 128;// bytes
+	private final static int OUT_BYTES = 64;
+
+	// default minimal length of input to process the leaves in parallel
+	private final static int DEFAULT_PARALLEL_THRESHOLD = 64 * 1024;
+
+	private int digestLength = 64; // 1 - 64 bytes
+
+	private Blake2b[] leaves = new Blake2b[PARALLELISM_DEGREE];
+	private Blake2b root;
+
+	// one block for each leaf
+	private byte[] buffer = new byte[PARALLELISM_DEGREE * BLOCK_LENGTH_BYTES];
+	private int bufferPos = 0;
+
+	// hash values of the leaves, input for root
+	private byte[] leafHashes = new byte[PARALLELISM_DEGREE * OUT_BYTES];
+
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	private ForkJoinPool pool = null;// common pool if null
+
+	public Blake2bp() {
+		this(null, 64);
+	}
+
+	public Blake2bp(byte[] _key) {
+		this(_key, 64);
+	}
+
+	/**
+	 * @param _key				the key (0 - 64 bytes) or null
+	 * @param _digestLength		the length of the hash value (1 - 64 bytes)
+	 */
+	public Blake2bp(byte[] _key, int _digestLength) {
+
+		if (_digestLength < 1 || _digestLength > 64) {
+			throw new IllegalArgumentException("Invalid digest length (required: 1 - 64)");
+		}
+		digestLength = _digestLength;
+		if (_key != null && _key.length > 64) {
+			throw new IllegalArgumentException("Keys > 64 are not supported");
+		}
+		init(_key);
+	}
+
+	/**
+	 * @param _key				the key (0 - 64 bytes) or null
+	 * @param _digestLength		the length of the hash value (1 - 64 bytes)
+	 * @param _parallelThreshold	minimal length of input for update(),
+	 * 							to process the leaves in parallel
+	 * @param _pool				the pool to process the leaves,
+	 * 							or null for the common pool
+	 */
+	public Blake2bp(byte[] _key, int _digestLength,
+			int _parallelThreshold, ForkJoinPool _pool) {
+		this(_key, _digestLength);
+		parallelThreshold = _parallelThreshold;
+		pool = _pool;
+	}
+
+	// initialize leaves and root
+	private void init(byte[] key) {
+
+		int keyLength = (key == null) ? 0 : key.length;
+		for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+			// the leaves use the digest length of the root
+			// in the parameter block, but return 64 bytes
+			leaves[i] = new Blake2bUnrolled(key, digestLength, null, null,
+					PARALLELISM_DEGREE, 2, 0L, i, 0, OUT_BYTES);
+			leaves[i].setOutputLength(OUT_BYTES);
+		}
+		leaves[PARALLELISM_DEGREE - 1].setLastNode(true);
+
+		root = new Blake2bUnrolled(null, digestLength, null, null,
+				PARALLELISM_DEGREE, 2, 0L, 0L, 1, OUT_BYTES);
+		// the root gets the key length, but not the key block:
+		root.setKeyLengthParameter(keyLength);
+		root.setLastNode(true);
+	}
+
+	/**
+	 * Processes the given message
+	 *
+	 * @param message
+	 *            byte array containing the message to be processed
+	 */
+	public void update(byte[] message) {
+		if (message == null) {
+			return;
+		}
+		update(message, 0, message.length);
+	}
+
+	/**
+	 * Processes one single byte
+	 *
+	 * @param b
+	 *            single byte to be processed
+	 */
+	public void update(byte b) {
+
+		if (bufferPos == buffer.length) {
+			for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+				leaves[i].update(buffer, i * BLOCK_LENGTH_BYTES, BLOCK_LENGTH_BYTES);
+			}
+			bufferPos = 0;
+		}
+		buffer[bufferPos++] = b;
+	}
+
+	/**
+	 * Processes a number of bytes of the given message
+	 * from a start position up to offset+len
+	 *
+	 * @param message
+	 *            byte array containing the message to be processed
+	 * @param offset
+	 *            position of message to start from
+	 * @param len
+	 *            number of bytes to be processed.
+	 */
+	public void update(byte[] message, int offset, int len) {
+
+		if (message == null || len == 0) return;
+
+		int fill = buffer.length - bufferPos;
+		if (bufferPos > 0 && len >= fill) {
+			// complete the buffer and process one block per leaf:
+			System.arraycopy(message, offset, buffer, bufferPos, fill);
+			for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+				leaves[i].update(buffer, i * BLOCK_LENGTH_BYTES, BLOCK_LENGTH_BYTES);
+			}
+			offset += fill;
+			len -= fill;
+			bufferPos = 0;
+		}
+		// process all complete stripes of 4 blocks:
+		int stripeLength = len - (len % buffer.length);
+		if (stripeLength > 0) {
+			if (stripeLength >= parallelThreshold) {
+				ForkJoinPool p = (pool == null) ? ForkJoinPool.commonPool() : pool;
+				p.invoke(new ParallelUpdate(leaves, message, offset, stripeLength));
+			} else {
+				for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+					updateLeaf(leaves[i], message, offset + i * BLOCK_LENGTH_BYTES, stripeLength);
+				}
+			}
+			offset += stripeLength;
+			len -= stripeLength;
+		}
+		// buffer the remaining bytes:
+		System.arraycopy(message, offset, buffer, bufferPos, len);
+		bufferPos += len;
+	}
+
+	// processes every fourth block of the stripes, starting at offset
+	private static void updateLeaf(Blake2b leaf, byte[] message, int offset, int stripeLength) {
+
+		int end = offset + stripeLength;
+		for (int pos = offset; pos < end; pos += PARALLELISM_DEGREE * BLOCK_LENGTH_BYTES) {
+			leaf.update(message, pos, BLOCK_LENGTH_BYTES);
+		}
+	}
+
+	/**
+	 * Calculates the final digest value
+	 *
+	 * @param out
+	 * 			the calculated digest will be copied in this array
+	 * @param outOffset
+	 * 			start position of the array out, where the digest is copied
+	 */
+	public void doFinal(byte[] out, int outOffset) {
+
+		for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+			int left = bufferPos - i * BLOCK_LENGTH_BYTES;
+			if (left > 0) {
+				if (left > BLOCK_LENGTH_BYTES) {
+					left = BLOCK_LENGTH_BYTES;
+				}
+				leaves[i].update(buffer, i * BLOCK_LENGTH_BYTES, left);
+			}
+			leaves[i].doFinal(leafHashes, i * OUT_BYTES);
+		}
+		bufferPos = 0;
+		root.update(leafHashes, 0, leafHashes.length);
+		root.doFinal(out, outOffset);
+	}
+
+	/**
+	 * Reset the hash function to use again after doFinal().
+	 */
+	public void reset() {
+
+		bufferPos = 0;
+		Arrays.fill(buffer, (byte) 0);
+		Arrays.fill(leafHashes, (byte) 0);
+		for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+			leaves[i].reset();
+		}
+		root.reset();
+	}
+
+	public String getName() {
+		return "Blake2bp";
+	}
+
+	public int getOutputSize() {
+		return digestLength;
+	}
+
+	/**
+	 * Processes the stripes of a large input:
+	 * each leaf is processed by one task, 
+	 * the leaves are not serialized with it
+	 */
+	private static class ParallelUpdate extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Blake2b[] leaves;
+		private final byte[] message;
+		private final int offset;
+		private final int stripeLength;
+		private final int leafIndex; // -1: fork the tasks for all leaves
+
+		ParallelUpdate(Blake2b[] _leaves, byte[] _message, int _offset, int _stripeLength) {
+			this(_leaves, _message, _offset, _stripeLength, -1);
+		}
+
+		private ParallelUpdate(Blake2b[] _leaves, byte[] _message, int _offset,
+				int _stripeLength, int _leafIndex) {
+			leaves = _leaves;
+			message = _message;
+			offset = _offset;
+			stripeLength = _stripeLength;
+			leafIndex = _leafIndex;
+		}
+
+		@Override
+		protected void compute() {
+			if (leafIndex < 0) {
+				ParallelUpdate[] tasks = new ParallelUpdate[PARALLELISM_DEGREE];
+				for (int i = 0; i < PARALLELISM_DEGREE; i++) {
+					tasks[i] = new ParallelUpdate(leaves, message,
+							offset + i * BLOCK_LENGTH_BYTES, stripeLength, i);
+				}
+				invokeAll(tasks);
+			} else {
+				updateLeaf(leaves[leafIndex], message, offset, stripeLength);
+			}
+		}
+	}
+}
@@ -0,0 +1,382 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Parallel hashing of directory trees
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Hashes all regular files of a directory tree with Blake2b (64 bytes)
+    and writes a manifest:
+
+    The files are hashed concurrently on a ForkJoinPool, each file
+    by one task. A manifest of a previous run can be passed, files with
+    unchanged size and modification time keep the hash value of the
+    previous manifest and are not read again.
+
+    The manifest is a UTF-8 text file with one line per file,
+    sorted by path:
+
+      <hash value (hex)> <size> <modification time (ms)> <path>
+
+    The path is relative to the root directory with '/' as separator.
+
+   Example code using this class:
+
+      // hashes only new and changed files, writes the new manifest:
+      DirectoryHasher hasher = new DirectoryHasher();
+      SortedMap<String, DirectoryHasher.Entry> manifest =
+      		hasher.update(Paths.get("deploy"), Paths.get("deploy.manifest"));
+
+   From the command line:
+
+      java cologne.eck.dr.op.crypto.digest.DirectoryHasher <directory> <manifest>
+*/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+public class DirectoryHasher {
+
+	private final static int HASH_LENGTH = 64;
+
+	// size of the read buffer of each thread
+	private final static int BUFFER_SIZE = 64 * 1024;
+
+	private final static ThreadLocal<ByteBuffer> readBuffer =
+			ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+
+	private final ForkJoinPool pool;
+
+	// number of files, which were read by the last call of hash()
+	private volatile int hashedFiles = 0;
+
+	/**
+	 * Hashing on the common pool
+	 */
+	public DirectoryHasher() {
+		this(null);
+	}
+
+	/**
+	 * @param _pool		the pool to hash the files,
+	 * 					or null for the common pool
+	 */
+	public DirectoryHasher(ForkJoinPool _pool) {
+		pool = (_pool == null) ? ForkJoinPool.commonPool() : _pool;
+	}
+
+	/**
+	 * One line of the manifest
+	 */
+	public static final class Entry {
+
+		private final String path;
+		private final long size;
+		private final long modificationTime;
+		private final byte[] hash;
+
+		/**
+		 * @param _path				the path relative to the root, separator '/'
+		 * @param _size				the size of the file in bytes
+		 * @param _modificationTime	the modification time in ms
+		 * @param _hash				the Blake2b hash value (64 bytes)
+		 */
+		public Entry(String _path, long _size, long _modificationTime, byte[] _hash) {
+			if (_hash == null || _hash.length != HASH_LENGTH) {
+				throw new IllegalArgumentException("Invalid hash value (required: 64 bytes)");
+			}
+			path = _path;
+			size = _size;
+			modificationTime = _modificationTime;
+			hash = _hash.clone();
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public long getModificationTime() {
+			return modificationTime;
+		}
+
+		public byte[] getHash() {
+			return hash.clone();
+		}
+
+		// a line of the manifest
+		private String toLine() {
+			StringBuilder sb = new StringBuilder(HASH_LENGTH * 2 + path.length() + 40);
+			for (byte b : hash) {
+				sb.append(Character.forDigit((b >>> 4) & 0xF, 16));
+				sb.append(Character.forDigit(b & 0xF, 16));
+			}
+			sb.append(' ').append(size).append(' ').append(modificationTime).append(' ').append(path);
+			return sb.toString();
+		}
+
+		private static Entry fromLine(String line) {
+			String[] fields = line.split(" ", 4);
+			if (fields.length != 4 || fields[0].length() != HASH_LENGTH * 2) {
+				throw new IllegalArgumentException("Invalid manifest line: " + line);
+			}
+			byte[] hash = new byte[HASH_LENGTH];
+			for (int i = 0; i < HASH_LENGTH; i++) {
+				hash[i] = (byte) Integer.parseInt(fields[0].substring(2 * i, 2 * i + 2), 16);
+			}
+			return new Entry(fields[3], Long.parseLong(fields[1]), Long.parseLong(fields[2]), hash);
+		}
+	}
+
+	/**
+	 * Hashes all regular files of the directory tree.
+	 * Files with the same path, size and modification time
+	 * as in the previous manifest are not read again.
+	 *
+	 * @param root		the root directory
+	 * @param previous	the manifest of a previous run or null
+	 * @return			the manifest, sorted by path
+	 *
+	 * @throws IOException	if the tree can not be walked or a file can not be read
+	 */
+	public SortedMap<String, Entry> hash(Path root, Map<String, Entry> previous) throws IOException {
+
+		List<Path> files = new ArrayList<Path>();
+		List<BasicFileAttributes> attributes = new ArrayList<BasicFileAttributes>();
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+				if (attrs.isRegularFile()) {
+					files.add(file);
+					attributes.add(attrs);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+
+		Entry[] entries = new Entry[files.size()];
+		String[] paths = new String[files.size()];
+		List<Integer> changed = new ArrayList<Integer>();
+		for (int i = 0; i < entries.length; i++) {
+			paths[i] = relativePath(root, files.get(i));
+			Entry old = (previous == null) ? null : previous.get(paths[i]);
+			if (old != null && old.size == attributes.get(i).size()
+					&& old.modificationTime == attributes.get(i).lastModifiedTime().toMillis()) {
+				entries[i] = old;
+			} else {
+				changed.add(i);
+			}
+		}
+
+		// hash values of the changed files, computed by the tasks:
+		byte[][] hashes = new byte[files.size()][];
+		int[] indices = new int[changed.size()];
+		for (int i = 0; i < indices.length; i++) {
+			indices[i] = changed.get(i);
+			hashes[indices[i]] = new byte[HASH_LENGTH];
+		}
+		try {
+			pool.invoke(new FileTask(files, hashes, indices, 0, indices.length));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		for (int index : indices) {
+			entries[index] = new Entry(paths[index], attributes.get(index).size(),
+					attributes.get(index).lastModifiedTime().toMillis(), hashes[index]);
+		}
+		hashedFiles = indices.length;
+
+		SortedMap<String, Entry> manifest = new TreeMap<String, Entry>();
+		for (Entry entry : entries) {
+			manifest.put(entry.path, entry);
+		}
+		return manifest;
+	}
+
+	/**
+	 * Reads the manifest of the previous run (if the file exists),
+	 * hashes new and changed files and writes the new manifest.
+	 *
+	 * @param root		the root directory
+	 * @param manifestFile	the manifest file
+	 * @return			the new manifest
+	 *
+	 * @throws IOException	if a file can not be read or written
+	 */
+	public SortedMap<String, Entry> update(Path root, Path manifestFile) throws IOException {
+
+		Map<String, Entry> previous = Files.exists(manifestFile) ? readManifest(manifestFile) : null;
+		SortedMap<String, Entry> manifest = hash(root, previous);
+		writeManifest(manifestFile, manifest);
+		return manifest;
+	}
+
+	/**
+	 * @return	the number of files, which were read
+	 * 			by the last call of hash() or update()
+	 */
+	public int getHashedFiles() {
+		return hashedFiles;
+	}
+
+	/**
+	 * Reads a manifest
+	 *
+	 * @param manifestFile	the manifest file
+	 * @return				the entries, sorted by path
+	 *
+	 * @throws IOException	if the file can not be read
+	 */
+	public static SortedMap<String, Entry> readManifest(Path manifestFile) throws IOException {
+
+		SortedMap<String, Entry> manifest = new TreeMap<String, Entry>();
+		for (String line : Files.readAllLines(manifestFile, StandardCharsets.UTF_8)) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			Entry entry = Entry.fromLine(line);
+			manifest.put(entry.path, entry);
+		}
+		return manifest;
+	}
+
+	/**
+	 * Writes a manifest: the file is replaced
+	 * after the new manifest was written completely.
+	 *
+	 * @param manifestFile	the manifest file
+	 * @param manifest		the entries
+	 *
+	 * @throws IOException	if the file can not be written
+	 */
+	public static void writeManifest(Path manifestFile, Map<String, Entry> manifest) throws IOException {
+
+		List<String> lines = new ArrayList<String>(manifest.size());
+		for (Entry entry : new TreeMap<String, Entry>(manifest).values()) {
+			lines.add(entry.toLine());
+		}
+		Path tmp = manifestFile.resolveSibling(manifestFile.getFileName() + ".tmp");
+		Files.write(tmp, lines, StandardCharsets.UTF_8);
+		Files.move(tmp, manifestFile, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// path relative to root with separator '/'
+	private static String relativePath(Path root, Path file) {
+		List<String> names = new ArrayList<String>();
+		for (Path name : root.relativize(file)) {
+			names.add(name.toString());
+		}
+		return String.join("/", names);
+	}
+
+	// hashes one file with the read buffer of this thread
+	private static void hashFile(Path file, byte[] out) throws IOException {
+
+		Blake2b digest = new Blake2bUnrolled();
+		ByteBuffer buffer = readBuffer.get();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			buffer.clear();
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				digest.update(buffer);
+				buffer.clear();
+			}
+		}
+		digest.doFinal(out, 0);
+	}
+
+	/**
+	 * Hashes a range of the changed files: one file per task. 
+	 * Paths are not serializable, the task is never stored
+	 */
+	private static class FileTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient List<Path> files;
+		private final byte[][] hashes;
+		private final int[] indices; // of the changed files
+		private final int start;
+		private final int end; // exclusive
+
+		FileTask(List<Path> _files, byte[][] _hashes, int[] _indices, int _start, int _end) {
+			files = _files;
+			hashes = _hashes;
+			indices = _indices;
+			start = _start;
+			end = _end;
+		}
+
+		@Override
+		protected void compute() {
+
+			if (end - start > 1) {
+				int middle = (start + end) >>> 1;
+				invokeAll(
+						new FileTask(files, hashes, indices, start, middle),
+						new FileTask(files, hashes, indices, middle, end));
+				return;
+			}
+			for (int i = start; i < end; i++) {
+				int index = indices[i];
+				try {
+					hashFile(files.get(index), hashes[index]);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length != 2) {
+			System.err.println("Usage: DirectoryHasher <directory> <manifest>");
+			System.exit(1);
+		}
+		long start = System.currentTimeMillis();
+		DirectoryHasher hasher = new DirectoryHasher();
+		SortedMap<String, Entry> manifest = hasher.update(Paths.get(args[0]), Paths.get(args[1]));
+		System.out.println(manifest.size() + " files, " + hasher.getHashedFiles()
+				+ " hashed, time in ms: " + (System.currentTimeMillis() - start));
+	}
+}
@@ -0,0 +1,141 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Hashing of memory-mapped files
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Hashes files without intermediate copies:
+
+    The file is mapped in windows (default 64 MiB) by FileChannel.map
+    and each window is passed to Digest.update(ByteBuffer), Blake2b reads
+    the message words directly from the mapped memory.
+    Only the loading of the next window into physical memory
+    (MappedByteBuffer.load) overlaps with the hashing of the current
+    window, it runs on a background thread. The mapping itself is done
+    by the hashing thread before the current window is hashed.
+
+    hash(Path) returns the finished Blake2b hash value, update(Digest, Path)
+    processes the file by any digest and does not finish it.
+
+   Example code using this class:
+
+      byte[] hash = MappedFileHasher.hash(Paths.get("archive.tar"));
+
+      Blake2b b = new Blake2b();
+      new MappedFileHasher().update(b, Paths.get("archive.tar"));
+      b.doFinal(hash, 0);
+*/
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+
+public class MappedFileHasher {
+
+	// default size of a mapped window
+	public final static int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	private final int windowSize;
+	private final Executor executor;
+
+	public MappedFileHasher() {
+		this(DEFAULT_WINDOW_SIZE, null);
+	}
+
+	/**
+	 * @param _windowSize	the size of a mapped window in bytes,
+	 * 						a multiple of 128 (the block size of Blake2b)
+	 * @param _executor		the executor to load the next window,
+	 * 						or null for the common pool
+	 */
+	public MappedFileHasher(int _windowSize, Executor _executor) {
+		if (_windowSize < 128 || _windowSize % 128 != 0) {
+			throw new IllegalArgumentException("Invalid window size (required: multiple of 128)");
+		}
+		windowSize = _windowSize;
+		executor = (_executor == null) ? ForkJoinPool.commonPool() : _executor;
+	}
+
+	/**
+	 * Computes the Blake2b hash value (64 bytes) of the file
+	 *
+	 * @param file		the file to hash
+	 * @return			the hash value
+	 *
+	 * @throws IOException	if the file can not be read
+	 */
+	public static byte[] hash(Path file) throws IOException {
+		Blake2b digest = new Blake2bUnrolled();
+		new MappedFileHasher().update(digest, file);
+		byte[] hash = new byte[64];
+		digest.doFinal(hash, 0);
+		return hash;
+	}
+
+	/**
+	 * Processes the content of the file by the digest.
+	 * The digest is not finished.
+	 *
+	 * @param digest	the digest to update
+	 * @param file		the file to hash
+	 *
+	 * @throws IOException	if the file can not be read
+	 */
+	public void update(Digest digest, Path file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			long size = channel.size();
+			long position = 0;
+			MappedByteBuffer window = map(channel, position, size);
+			while (window != null) {
+				long nextPosition = position + window.capacity();
+				// map the next window, load it while this one is hashed:
+				MappedByteBuffer next = map(channel, nextPosition, size);
+				CompletableFuture<Void> prefetch = null;
+				if (next != null) {
+					prefetch = CompletableFuture.runAsync(next::load, executor);
+				}
+				digest.update(window);
+				if (prefetch != null) {
+					prefetch.join();
+				}
+				window = next;
+				position = nextPosition;
+			}
+		}
+	}
+
+	// maps the window at position, null at the end of the file
+	private MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		if (position >= size) {
+			return null;
+		}
+		long length = Math.min(windowSize, size - position);
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+	}
+}
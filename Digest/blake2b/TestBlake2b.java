@@ -23,7 +23,23 @@ package blake2b;
  * along with this library.
  */
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.util.Arrays;
+import java.util.SortedMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
 public class TestBlake2b {	
 	
@@ -53,6 +69,20 @@ public class TestBlake2b {
 				"142709d62e28fcccd0af97fad0f8465b971e82201dc51070faa0372aa43e92484be1c1e73ba10906d5d1853db6a4106e0a7bf9800d373d6dee2d46d62ef2a461"}			
 	};
 	
+	private static final String[][] blake2bpTestVectors = { // input/message, key, hash
+		
+		// Vectors from BLAKE2 reference implementation: blake2bp-kat.txt
+		{"",
+			"000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f202122232425262728292a2b2c2d2e2f303132333435363738393a3b3c3d3e3f",
+			"9d9461073e4eb640a255357b839f394b838c6ff57c9b686a3f76107c1066728f3c9956bd785cbc3bf79dc2ab578c5a0c063b9d9c405848de1dbe821cd05c940a"},
+		{"00",
+			"000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f202122232425262728292a2b2c2d2e2f303132333435363738393a3b3c3d3e3f",
+			"ff8e90a37b94623932c59f7559f26035029c376732cb14d41602001cbb73adb79293a2dbda5f60703025144d158e2735529596251c73c0345ca6fccb1fb1e97e"},
+		{"0001",
+			"000102030405060708090a0b0c0d0e0f101112131415161718191a1b1c1d1e1f202122232425262728292a2b2c2d2e2f303132333435363738393a3b3c3d3e3f",
+			"d6220ca195a0f356a4795e071cee1f5412ecd95d8a5e01d7c2b86750ca53d7f64c29cbb3d289c6f4ecc6c01e3ca9338971170388e3e40228479006d1bbebad51"}
+	};
+	
 	private final static String[][] unkeyedTestVectors = { // from: http://fossies.org/linux/john/src/rawBLAKE2_512_fmt_plug.c
 		// hash, input/message
 		// digests without leading $BLAKE2$
@@ -121,6 +151,40 @@ public class TestBlake2b {
 				System.out.println("expected: \n" + keyedTestVectors[tv][2].toUpperCase());
 			}
 		}
+		
+		// keyed test vectors with one instance, reset after each hash 
+		// (the key block is processed only once):
+		Blake2b reusedKeyed = new Blake2bUnrolled(hex2bytes(keyedTestVectors[0][1]));
+		boolean keyedResetOk = true;
+		for (int round = 0; round < 2; round++) {
+			for (int tv = 0; tv < keyedTestVectors.length; tv++) {
+				reusedKeyed.update(hex2bytes(keyedTestVectors[tv][0]));
+				byte[] keyedHash = new byte[64];
+				reusedKeyed.doFinal(keyedHash, 0);
+				reusedKeyed.reset();
+				if ( ! bytes2hex(keyedHash).equals(keyedTestVectors[tv][2].toUpperCase())) {
+					keyedResetOk = false;
+				}
+			}
+		}
+		// thread-safe MAC pool:
+		Blake2bMacPool macPool = new Blake2bMacPool(hex2bytes(keyedTestVectors[0][1]), 64);
+		for (int tv = 0; tv < keyedTestVectors.length; tv++) {
+			byte[] mac = hex2bytes(keyedTestVectors[tv][2]);
+			if ( ! macPool.verify(hex2bytes(keyedTestVectors[tv][0]), mac)) {
+				keyedResetOk = false;
+			}
+			mac[0] ^= 1;
+			if (macPool.verify(hex2bytes(keyedTestVectors[tv][0]), mac)) {
+				keyedResetOk = false;
+			}
+		}
+		if (keyedResetOk == true) {
+			System.out.println("Reset of keyed digest, MAC pool");
+			System.out.println("ok");
+		} else {
+			System.out.println("Reset of keyed digest failed");
+		}
 
 		// test unkeyed test vectors:
 		for (int i = 0; i < unkeyedTestVectors.length; i++) {
@@ -144,5 +208,790 @@ public class TestBlake2b {
 				System.out.println("expected: \n" + unkeyedTestVectors[i][0].toUpperCase());
 			}
 		}
+		
+		// test Blake2bp test vectors:
+		for (int tv = 0; tv < blake2bpTestVectors.length; tv++) {
+			
+			byte[] input = hex2bytes(blake2bpTestVectors[tv][0]);
+			byte[] key = hex2bytes(blake2bpTestVectors[tv][1]);
+
+			Blake2bp blake2bp = new Blake2bp(key);
+			blake2bp.update(input);
+			byte[] hash = new byte[64];
+			blake2bp.doFinal(hash, 0);
+			
+			if (bytes2hex(hash).toUpperCase().equals(blake2bpTestVectors[tv][2].toUpperCase())){
+				System.out.println(blake2bpTestVectors[tv][0] + " Blake2bp with key");
+				System.out.println("ok");
+			} else {
+				System.out.println("Blake2bp test vector failed");
+				System.out.println("result: \n" + bytes2hex(hash));
+				System.out.println("expected: \n" + blake2bpTestVectors[tv][2].toUpperCase());
+			}
+		}
+		// Blake2bp: parallel processing must not change the result
+		byte[] largeInput = new byte[1024 * 1024 + 77];
+		for (int i = 0; i < largeInput.length; i++) {
+			largeInput[i] = (byte) i;
+		}
+		Blake2bp parallel = new Blake2bp(null, 64, 1024, null);
+		parallel.update(largeInput);
+		byte[] parallelHash = new byte[64];
+		parallel.doFinal(parallelHash, 0);
+		Blake2bp sequential = new Blake2bp(null, 64, Integer.MAX_VALUE, null);
+		for (int i = 0; i < largeInput.length; i += 1000) {
+			sequential.update(largeInput, i, Math.min(1000, largeInput.length - i));
+		}
+		byte[] sequentialHash = new byte[64];
+		sequential.doFinal(sequentialHash, 0);
+		if (bytes2hex(parallelHash).equals(bytes2hex(sequentialHash))) {
+			System.out.println("Blake2bp parallel");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2bp parallel failed");
+		}
+		
+		// Tree Hashing Mode: example of the Python documentation of hashlib
+		// (6000 zero bytes, fanout 2, depth 2, leaf length 4096, inner hash length 64)
+		Blake2bTree tree = new Blake2bTree(null, 32, null, null, 2, 2, 4096, 64);
+		byte[] treeHash = tree.hash(new byte[6000]);
+		if (bytes2hex(treeHash).equals("3AD2A9B37C6070E374C7A8C508FE20CA86B6ED54E286E93A0318E95E881DB5AA")) {
+			System.out.println("Blake2b tree hashing");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2b tree hashing failed");
+			System.out.println("result: \n" + bytes2hex(treeHash));
+		}
+		// several layers: equal to a sequential computation, 
+		// limited depth: at most leafLength * fanout^(depth-1) bytes
+		byte[] treeInput = new byte[300000];
+		for (int i = 0; i < treeInput.length; i++) {
+			treeInput[i] = (byte) (i * 13);
+		}
+		boolean layersOk = Arrays.equals(
+				new Blake2bTree(null, 40, null, null, 4, 255, 1024, 48).hash(treeInput), 
+				treeReference(treeInput, 40, 4, 255, 1024, 48))
+				&& Arrays.equals(
+				new Blake2bTree(null, 32, null, null, 2, 3, 64, 64).hash(Arrays.copyOf(treeInput, 256)), 
+				treeReference(Arrays.copyOf(treeInput, 256), 32, 2, 3, 64, 64));
+		try {
+			new Blake2bTree(null, 32, null, null, 2, 3, 64, 64).hash(Arrays.copyOf(treeInput, 257));
+			layersOk = false;
+		} catch (IllegalArgumentException e) {
+			// expected: more than 64 * 2^2 bytes
+		}
+		if (layersOk == true) {
+			System.out.println("Blake2b tree layers");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2b tree layers failed");
+		}
+		
+		// Blake2Xb: key 00..3f, input 00..ff (as blake2xb-kat.txt), 
+		// the output of 130 bytes is squeezed in pieces:
+		byte[] xofKey = new byte[64];
+		for (int i = 0; i < xofKey.length; i++) {
+			xofKey[i] = (byte) i;
+		}
+		byte[] xofInput = new byte[256];
+		for (int i = 0; i < xofInput.length; i++) {
+			xofInput[i] = (byte) i;
+		}
+		Blake2Xb xof = new Blake2Xb(xofKey, 1, null, null);
+		xof.update(xofInput);
+		byte[] xofOut = new byte[1];
+		xof.doFinal(xofOut, 0);
+		xof = new Blake2Xb(xofKey, 130, null, null);
+		xof.update(xofInput);
+		byte[] xofOut130 = new byte[130];
+		xof.squeeze(xofOut130, 0, 5);
+		xof.squeeze(xofOut130, 5, 100);
+		xof.squeeze(xofOut130, 105, 25);
+		if (bytes2hex(xofOut).equals("64")
+				&& bytes2hex(xofOut130).equals(("83bed0d556798f2b419f7056e6d3ffada06e939b95a688d0ec8c6ac5ea45ab73"
+						+ "a4cf01043e0a170766e21395f27ab4b78c435f5f0dfe6e93ab80df38610e4115"
+						+ "8429ddf20296f53a06a017723359fe22dc08b5da33f0800a4fe50118e8d7eab2"
+						+ "f83a85cd764bf8a166903bd0e9dcfeeceba44ff4ca4439846458d31ea2bb5646"
+						+ "45d1").toUpperCase()) ) {
+			System.out.println("Blake2Xb");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2Xb failed");
+			System.out.println("result: \n" + bytes2hex(xofOut) + "\n" + bytes2hex(xofOut130));
+		}
+		
+		// ByteBuffer input: heap and direct buffers in both byte orders, 
+		// split into parts across block boundaries
+		byte[] bufferInput = new byte[1000];
+		for (int i = 0; i < bufferInput.length; i++) {
+			bufferInput[i] = (byte) (i * 7);
+		}
+		Blake2b arrayDigest = new Blake2b();
+		arrayDigest.update(bufferInput);
+		byte[] arrayHash = new byte[64];
+		arrayDigest.doFinal(arrayHash, 0);
+		boolean bufferOk = true;
+		ByteBuffer[] buffers = { 
+				ByteBuffer.wrap(bufferInput), 
+				ByteBuffer.allocateDirect(bufferInput.length), 
+				ByteBuffer.allocateDirect(bufferInput.length).order(ByteOrder.LITTLE_ENDIAN) };
+		for (ByteBuffer byteBuffer : buffers) {
+			if (byteBuffer.isDirect()) {
+				byteBuffer.put(bufferInput);
+				byteBuffer.flip();
+			}
+			Blake2b bufferDigest = new Blake2b();
+			int[] limits = { 3, 131, 131, 700, 1000 };
+			for (int limit : limits) {
+				byteBuffer.limit(limit);
+				bufferDigest.update(byteBuffer);
+			}
+			byte[] bufferHash = new byte[64];
+			bufferDigest.doFinal(bufferHash, 0);
+			if ( ! bytes2hex(bufferHash).equals(bytes2hex(arrayHash)) || byteBuffer.hasRemaining()) {
+				bufferOk = false;
+			}
+		}
+		if (bufferOk == true) {
+			System.out.println("ByteBuffer input");
+			System.out.println("ok");
+		} else {
+			System.out.println("ByteBuffer input failed");
+		}
+		
+		// midstate: snapshot after a common prefix of 300 bytes, 
+		// restored for different suffixes
+		Blake2b prefixDigest = new Blake2b();
+		prefixDigest.update(bufferInput, 0, 300);
+		Blake2b snapshot = new Blake2bUnrolled(prefixDigest);
+		Blake2b suffixDigest = new Blake2b();
+		boolean midstateOk = true;
+		for (int suffix = 300; suffix <= 1000; suffix += 350) {
+			suffixDigest.copyIn(snapshot);
+			suffixDigest.update(bufferInput, 300, suffix - 300);
+			byte[] midstateHash = new byte[64];
+			suffixDigest.doFinal(midstateHash, 0);
+			Blake2b fullDigest = new Blake2b();
+			fullDigest.update(bufferInput, 0, suffix);
+			byte[] fullHash = new byte[64];
+			fullDigest.doFinal(fullHash, 0);
+			if ( ! bytes2hex(midstateHash).equals(bytes2hex(fullHash))) {
+				midstateOk = false;
+			}
+		}
+		if (midstateOk == true) {
+			System.out.println("Midstate copy and restore");
+			System.out.println("ok");
+		} else {
+			System.out.println("Midstate copy and restore failed");
+		}		
+		// batch of messages with different lengths and digest lengths:
+		byte[][] batchMessages = new byte[5][];
+		byte[][] batchHashes = new byte[5][];
+		for (int i = 0; i < batchMessages.length; i++) {
+			batchMessages[i] = Arrays.copyOf(bufferInput, i * 129);
+			batchHashes[i] = new byte[64 - i * 8];
+		}
+		Blake2b.hashBatch(batchMessages, batchHashes);
+		boolean batchOk = true;
+		for (int i = 0; i < batchMessages.length; i++) {
+			Blake2b singleDigest = new Blake2b(null, batchHashes[i].length, null, null);
+			singleDigest.update(batchMessages[i]);
+			byte[] singleHash = new byte[batchHashes[i].length];
+			singleDigest.doFinal(singleHash, 0);
+			if ( ! Arrays.equals(singleHash, batchHashes[i])) {
+				batchOk = false;
+			}
+		}
+		if (batchOk == true) {
+			System.out.println("Batch of messages");
+			System.out.println("ok");
+		} else {
+			System.out.println("Batch of messages failed");
+		}
+		// gather hash: segments of different lengths after a prefix,
+		// with and without key, repeated after the internal restart
+		int[][] segmentLengths = { {}, {0, 0}, {1, 63, 64}, {128}, {127, 1, 128},
+				{129, 128, 0, 256}, {5, 128, 300} };
+		boolean gatherOk = true;
+		for (byte[] gatherKey : new byte[][] { null, hex2bytes(keyedTestVectors[1][1]) }) {
+			Blake2b gatherDigest = new Blake2b(gatherKey, 64, null, null);
+			for (int prefix : new int[] {0, 5, 128}) {
+				for (int[] lengths : segmentLengths) {
+					Segment[] parts = new Segment[lengths.length];
+					int pos = prefix;
+					for (int i = 0; i < lengths.length; i++) {
+						parts[i] = new Segment(bufferInput, pos, lengths[i]);
+						pos += lengths[i];
+					}
+					Blake2b updateDigest = new Blake2b(gatherKey, 64, null, null);
+					updateDigest.update(bufferInput, 0, pos);
+					byte[] updateHash = new byte[64];
+					updateDigest.doFinal(updateHash, 0);
+					for (int repeat = 0; repeat < 2; repeat++) {
+						byte[] gatherHash = new byte[64];
+						gatherDigest.update(bufferInput, 0, prefix);
+						// repeat with the fixed-arity methods:
+						if (repeat == 1 && parts.length == 2) {
+							gatherDigest.hash(gatherHash, 0, parts[0], parts[1]);
+						} else if (repeat == 1 && parts.length == 3) {
+							gatherDigest.hash(gatherHash, 0, parts[0], parts[1], parts[2]);
+						} else {
+							gatherDigest.hash(gatherHash, 0, parts);
+						}
+						if ( ! Arrays.equals(gatherHash, updateHash)) {
+							gatherOk = false;
+						}
+					}
+				}
+			}
+		}
+		if (gatherOk == true) {
+			System.out.println("Gather hash of segments");
+			System.out.println("ok");
+		} else {
+			System.out.println("Gather hash of segments failed");
+		}
+		// precomputed parameters: salt, personalization, with and without key
+		byte[] paramSalt = Arrays.copyOf(bufferInput, 16);
+		byte[] paramPersonalization = Arrays.copyOfRange(bufferInput, 16, 32);
+		boolean paramsOk = true;
+		for (byte[] paramKey : new byte[][] { null, hex2bytes(keyedTestVectors[1][1]) }) {
+			Blake2bParams params = new Blake2bParams(paramKey, 48, paramSalt, paramPersonalization);
+			Blake2b paramDigest = new Blake2bUnrolled(params);
+			for (int len : new int[] {0, 1, 128, 300}) {
+				Blake2b plainDigest = new Blake2b(paramKey, 48, paramSalt, paramPersonalization);
+				plainDigest.update(bufferInput, 0, len);
+				byte[] plainHash = new byte[48];
+				plainDigest.doFinal(plainHash, 0);
+				byte[] paramHash = new byte[48];
+				paramDigest.update(bufferInput, 0, len);
+				paramDigest.doFinal(paramHash, 0);
+				paramDigest.reset();
+				if ( ! Arrays.equals(plainHash, paramHash) || params.getDigestLength() != 48) {
+					paramsOk = false;
+				}
+			}
+		}
+		if (paramsOk == true) {
+			System.out.println("Precomputed parameters");
+			System.out.println("ok");
+		} else {
+			System.out.println("Precomputed parameters failed");
+		}
+		// JCA provider: MessageDigest and Mac
+		try {
+			Provider provider = new Blake2bProvider();
+			MessageDigest md = MessageDigest.getInstance("BLAKE2B-512", provider);
+			md.update(bufferInput, 0, 500);
+			MessageDigest mdClone = (MessageDigest) md.clone();
+			mdClone.update(bufferInput, 500, 500);
+			Mac mac = Mac.getInstance("BLAKE2BMAC-512", provider);
+			mac.init(new SecretKeySpec(hex2bytes(keyedTestVectors[1][1]), "BLAKE2BMAC"));
+			if (Arrays.equals(mdClone.digest(), arrayHash)
+					&& bytes2hex(mac.doFinal(hex2bytes(keyedTestVectors[1][0])))
+						.equals(keyedTestVectors[1][2].toUpperCase()) ) {
+				System.out.println("JCA provider");
+				System.out.println("ok");
+			} else {
+				System.out.println("JCA provider failed");
+			}
+		} catch (Exception e) {
+			System.out.println("JCA provider failed: " + e);
+		}		
+		// streams: single bytes, small and large arrays, skip
+		try {
+			byte[] streamInput = new byte[20000];
+			for (int i = 0; i < streamInput.length; i++) {
+				streamInput[i] = (byte) (i * 7);
+			}
+			Blake2b streamReference = new Blake2b();
+			streamReference.update(streamInput);
+			byte[] referenceHash = new byte[64];
+			streamReference.doFinal(referenceHash, 0);
+			
+			ByteArrayOutputStream sink = new ByteArrayOutputStream();
+			Blake2bOutputStream hashOut = new Blake2bOutputStream(sink);
+			hashOut.write(streamInput[0]);
+			hashOut.write(streamInput, 1, 1000);
+			for (int i = 1001; i < 10000; i++) {
+				hashOut.write(streamInput[i]);
+			}
+			hashOut.write(streamInput, 10000, 10000);
+			byte[] outHash = new byte[64];
+			hashOut.doFinal(outHash, 0);
+			
+			Blake2bInputStream hashIn = new Blake2bInputStream(new ByteArrayInputStream(streamInput));
+			hashIn.read();
+			hashIn.skip(9000);
+			while (hashIn.read(new byte[333]) != -1) {
+				hashIn.read();
+			}
+			byte[] inHash = new byte[64];
+			hashIn.doFinal(inHash, 0);
+			hashIn.close();
+			
+			if (Arrays.equals(outHash, referenceHash) && Arrays.equals(inHash, referenceHash)
+					&& Arrays.equals(sink.toByteArray(), streamInput)) {
+				System.out.println("Input and output streams");
+				System.out.println("ok");
+			} else {
+				System.out.println("Input and output streams failed");
+			}
+		} catch (IOException e) {
+			System.out.println("Input and output streams failed: " + e);
+		}		
+		// memory-mapped file in several windows:
+		try {
+			Path file = Files.createTempFile("blake2b", ".tmp");
+			try {
+				Files.write(file, bufferInput);
+				Blake2b fileDigest = new Blake2b();
+				new MappedFileHasher(256, null).update(fileDigest, file);
+				byte[] fileHash = new byte[64];
+				fileDigest.doFinal(fileHash, 0);
+				if (bytes2hex(fileHash).equals(bytes2hex(arrayHash))) {
+					System.out.println("Memory-mapped file");
+					System.out.println("ok");
+				} else {
+					System.out.println("Memory-mapped file failed");
+				}
+			} finally {
+				Files.delete(file);
+			}
+		} catch (IOException e) {
+			System.out.println("Memory-mapped file failed: " + e);
+		}
+		// encoded state: restored in another instance, keyed state is refused
+		boolean encodedOk = true;
+		for (int len : new int[] {0, 1, 128, 129, 300}) {
+			Blake2b encodingDigest = new Blake2b(null, 40, paramSalt, paramPersonalization);
+			encodingDigest.update(bufferInput, 0, len);
+			Blake2b restoredDigest = new Blake2bUnrolled();
+			restoredDigest.restoreState(encodingDigest.getEncodedState());
+			restoredDigest.update(bufferInput, len, 1000 - len);
+			encodingDigest.update(bufferInput, len, 1000 - len);
+			byte[] encodingHash = new byte[40];
+			encodingDigest.doFinal(encodingHash, 0);
+			byte[] restoredHash = new byte[40];
+			restoredDigest.doFinal(restoredHash, 0);
+			if ( ! Arrays.equals(encodingHash, restoredHash)) {
+				encodedOk = false;
+			}
+		}
+		try {
+			new Blake2b(hex2bytes(keyedTestVectors[1][1])).getEncodedState();
+			encodedOk = false;
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			byte[] keyLengthState = new Blake2b().getEncodedState();
+			keyLengthState[4] = 64;
+			new Blake2b().restoreState(keyLengthState);
+			encodedOk = false;
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			byte[] roundsState = new Blake2b().getEncodedState();
+			roundsState[1] = 1;
+			new Blake2b().restoreState(roundsState);
+			encodedOk = false;
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		if ( ! new Blake2b().hasEncodedParameters(new Blake2bUnrolled().getEncodedState())
+				|| new Blake2b().hasEncodedParameters(new Blake2b(null, 32, null, null).getEncodedState())) {
+			encodedOk = false;
+		}
+		if (encodedOk == true) {
+			System.out.println("Encoded state");
+			System.out.println("ok");
+		} else {
+			System.out.println("Encoded state failed");
+		}
+		// append-only file: continues from the checkpoint, 
+		// starts again after modification of the tail
+		try {
+			Path log = Files.createTempFile("blake2b", ".log");
+			AppendOnlyFileHasher logHasher = new AppendOnlyFileHasher(log);
+			try {
+				Files.write(log, Arrays.copyOf(bufferInput, 300));
+				logHasher.hash();
+				Files.write(log, Arrays.copyOfRange(bufferInput, 300, 1000), StandardOpenOption.APPEND);
+				byte[] resumedHash = logHasher.hash();
+				long resumedFrom = logHasher.getResumedFrom();
+				byte[] modified = bufferInput.clone();
+				modified[999] ^= 1;
+				Files.write(log, modified);
+				logHasher.hash();
+				long modifiedFrom = logHasher.getResumedFrom();
+				Files.write(log, bufferInput);
+				byte[] restartedHash = logHasher.hash();
+				// checkpoint with other parameters and with invalid state length:
+				// magic (4), version (1), position (8), tail hash (64), state length (4), state
+				Path checkpoint = log.resolveSibling(log.getFileName() + ".b2checkpoint");
+				byte[] otherParameters = Files.readAllBytes(checkpoint);
+				otherParameters[77 + 4 + 2] = 32; // digest length
+				Files.write(checkpoint, otherParameters);
+				byte[] otherParametersHash = logHasher.hash();
+				long otherParametersFrom = logHasher.getResumedFrom();
+				byte[] invalidLength = Files.readAllBytes(checkpoint);
+				ByteBuffer.wrap(invalidLength).putInt(77, Integer.MAX_VALUE);
+				Files.write(checkpoint, invalidLength);
+				byte[] invalidLengthHash = logHasher.hash();
+				long invalidLengthFrom = logHasher.getResumedFrom();
+				if (resumedFrom == 300 && modifiedFrom == 0 && logHasher.getLength() == 1000
+						&& otherParametersFrom == 0 && invalidLengthFrom == 0
+						&& Arrays.equals(resumedHash, arrayHash) 
+						&& Arrays.equals(restartedHash, arrayHash)
+						&& Arrays.equals(otherParametersHash, arrayHash)
+						&& Arrays.equals(invalidLengthHash, arrayHash)) {
+					System.out.println("Append-only file checkpoint");
+					System.out.println("ok");
+				} else {
+					System.out.println("Append-only file checkpoint failed");
+				}
+			} finally {
+				logHasher.deleteCheckpoint();
+				Files.delete(log);
+			}
+		} catch (IOException e) {
+			System.out.println("Append-only file checkpoint failed: " + e);
+		}
+		// directory manifest: only new and changed files are hashed again
+		try {
+			Path dir = Files.createTempDirectory("blake2b");
+			Path manifestFile = Files.createTempFile("blake2b", ".manifest");
+			try {
+				Files.createDirectory(dir.resolve("sub"));
+				Files.write(dir.resolve("a"), bufferInput);
+				Files.write(dir.resolve("sub").resolve("b"), new byte[300000]);
+				Files.write(dir.resolve("sub").resolve("c"), new byte[0]);
+				Files.delete(manifestFile);
+				DirectoryHasher hasher = new DirectoryHasher();
+				hasher.update(dir, manifestFile);
+				int firstRun = hasher.getHashedFiles();
+				Files.write(dir.resolve("sub").resolve("c"), bufferInput);
+				SortedMap<String, DirectoryHasher.Entry> manifest = hasher.update(dir, manifestFile);
+				if (firstRun == 3 && hasher.getHashedFiles() == 1 
+						&& DirectoryHasher.readManifest(manifestFile).keySet().equals(manifest.keySet())
+						&& Arrays.equals(manifest.get("a").getHash(), arrayHash)
+						&& Arrays.equals(manifest.get("sub/c").getHash(), arrayHash)
+						&& Arrays.equals(manifest.get("sub/b").getHash(), 
+								MappedFileHasher.hash(dir.resolve("sub").resolve("b")))) {
+					System.out.println("Directory manifest");
+					System.out.println("ok");
+				} else {
+					System.out.println("Directory manifest failed");
+				}
+			} finally {
+				Files.deleteIfExists(manifestFile);
+				Files.delete(dir.resolve("sub").resolve("c"));
+				Files.delete(dir.resolve("sub").resolve("b"));
+				Files.delete(dir.resolve("sub"));
+				Files.delete(dir.resolve("a"));
+				Files.delete(dir);
+			}
+		} catch (IOException e) {
+			System.out.println("Directory manifest failed: " + e);
+		}
+		// Merkle tree: root equal to Blake2bTree with fanout 2 and unlimited depth, 
+		// the root after updates of chunks equal to the root of a new build
+		try {
+			Blake2bMerkleTree merkle = new Blake2bMerkleTree(96, 32);
+			byte[] blocks = bufferInput.clone();
+			merkle.build(blocks, 0, blocks.length);
+			boolean merkleOk = Arrays.equals(merkle.getRoot(), 
+					new Blake2bTree(null, 32, null, null, 2, 255, 96, 32).hash(blocks))
+					&& merkle.getChunkCount() == 11;
+			blocks[500] ^= 1;
+			blocks[950] ^= 1;
+			merkle.update(blocks, 0, 500, 1);
+			merkle.update(blocks, 0, 950, 1);
+			Blake2bMerkleTree rebuilt = new Blake2bMerkleTree(96, 32);
+			rebuilt.build(blocks, 0, blocks.length);
+			merkleOk &= Arrays.equals(merkle.getRoot(), rebuilt.getRoot());
+			Path blockFile = Files.createTempFile("blake2b", ".blocks");
+			try {
+				Files.write(blockFile, bufferInput);
+				merkle.build(blockFile);
+				blocks[500] ^= 1;
+				blocks[950] ^= 1;
+				rebuilt.build(blocks, 0, blocks.length);
+				merkleOk &= Arrays.equals(merkle.getRoot(), rebuilt.getRoot());
+				Files.write(blockFile, Arrays.copyOf(bufferInput, 0));
+				merkle.build(blockFile);
+				merkleOk &= Arrays.equals(merkle.getRoot(), 
+						new Blake2bTree(null, 32, null, null, 2, 255, 96, 32).hash(new byte[0]));
+			} finally {
+				Files.delete(blockFile);
+			}
+			if (merkleOk == true) {
+				System.out.println("Merkle tree");
+				System.out.println("ok");
+			} else {
+				System.out.println("Merkle tree failed");
+			}
+		} catch (IOException e) {
+			System.out.println("Merkle tree failed: " + e);
+		}
+		// random bit generator: deterministic with the same seed, 
+		// parallel and serial blocks equal, new output for each request
+		Blake2bRandom random1 = new Blake2bRandom(paramSalt);
+		Blake2bRandom random2 = new Blake2bRandom(paramSalt);
+		random2.setParallelism(1024, null);
+		byte[] bulk1 = random1.nextBytes(100000);
+		byte[] bulk2 = random2.nextBytes(100000);
+		byte[] salt1 = random1.nextBytes(16);
+		byte[] salt2 = random2.nextBytes(16);
+		random2.reseed(paramPersonalization);
+		if (Arrays.equals(bulk1, bulk2) && Arrays.equals(salt1, salt2)
+				&& ! Arrays.equals(salt1, Arrays.copyOf(bulk1, 16))
+				&& ! Arrays.equals(random1.nextBytes(16), random2.nextBytes(16))
+				&& Blake2bRandom.current() == Blake2bRandom.current()
+				&& ! Arrays.equals(Blake2bRandom.current().nextBytes(16), 
+						new Blake2bRandom().nextBytes(16))) {
+			System.out.println("Random bit generator");
+			System.out.println("ok");
+		} else {
+			System.out.println("Random bit generator failed");
+		}
+		// round-reduced Blake2b_1: hash of 64-bit words equal to hash of bytes, 
+		// the state is kept between the calls, the output overwrites an input
+		Blake2b_1 fastBytes = new Blake2b_1();
+		Blake2b_1 fastWords = new Blake2b_1();
+		byte[] vertexBytes = Arrays.copyOf(bufferInput, 256);
+		long[] vertexWords = new long[32];
+		for (int i = 0; i < vertexWords.length; i++) {
+			vertexWords[i] = Blake2b.bytes2long(vertexBytes, i * 8);
+		}
+		for (int v = 0; v < 30; v++) {
+			int in = (v % 3) * 64;
+			fastBytes.hash(v, vertexBytes, in, vertexBytes, 192, vertexBytes, in);
+			fastWords.hash(v, vertexWords, in / 8, vertexWords, 24, vertexWords, in / 8);
+		}
+		boolean wordsOk = true;
+		for (int i = 0; i < vertexWords.length; i++) {
+			wordsOk &= vertexWords[i] == Blake2b.bytes2long(vertexBytes, i * 8);
+		}
+		if (wordsOk == true) {
+			System.out.println("Blake2b_1 words");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2b_1 words failed");
+		}
+		// reduced rounds: 12 rounds from permutation 0 are Blake2b, 
+		// the interface of Catena v3.2 equal to FastHash
+		Blake2bReduced rounds12 = new Blake2bReduced(12);
+		byte[] reducedHash = new byte[64];
+		rounds12.hash(12, bufferInput, 0, bufferInput, 64, reducedHash, 0);
+		Blake2b fullRounds = new Blake2b();
+		fullRounds.update(bufferInput, 0, 128);
+		byte[] fullHash = new byte[64];
+		fullRounds.doFinal(fullHash, 0);
+		Blake2bReduced rounds2 = new Blake2bReduced(2);
+		ReducedDigest rounds2Digest = new Blake2bReduced(2);
+		byte[] fastHash2 = new byte[64];
+		byte[] reducedHash2 = new byte[64];
+		boolean reducedOk = Arrays.equals(reducedHash, fullHash);
+		for (int v = 0; v < 14; v++) {
+			rounds2.hash(v, bufferInput, v * 64, bufferInput, 200, fastHash2, 0);
+			rounds2Digest.setVertexIndex(v);
+			rounds2Digest.update(bufferInput, v * 64, 64);
+			rounds2Digest.update(bufferInput, 200, 64);
+			rounds2Digest.doFinal(reducedHash2, 0);
+			reducedOk &= Arrays.equals(fastHash2, reducedHash2);
+		}
+		if (reducedOk == true) {
+			System.out.println("Blake2b reduced rounds");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2b reduced rounds failed");
+		}
+		// JDK SHA-512: equal to SHA512Digest, midstate by copy
+		Digest jdkSha = new JdkSHA512Digest();
+		Digest javaSha = new SHA512Digest();
+		byte[] jdkShaHash = new byte[64];
+		byte[] javaShaHash = new byte[64];
+		boolean shaOk = jdkSha.getOutputSize() == 64;
+		for (int len = 0; len <= 300; len += 7) {
+			jdkSha.update(bufferInput, 0, len);
+			jdkSha.doFinal(jdkShaHash, 0);
+			javaSha.update(bufferInput, 0, len);
+			javaSha.doFinal(javaShaHash, 0);
+			shaOk &= Arrays.equals(jdkShaHash, javaShaHash);
+		}
+		JdkSHA512Digest shaPrefix = new JdkSHA512Digest();
+		shaPrefix.update(bufferInput, 0, 300);
+		JdkSHA512Digest shaCopy = new JdkSHA512Digest(shaPrefix);
+		shaCopy.update(bufferInput, 300, 700);
+		shaCopy.doFinal(jdkShaHash, 0);
+		javaSha.update(bufferInput, 0, 1000);
+		javaSha.doFinal(javaShaHash, 0);
+		shaOk &= Arrays.equals(jdkShaHash, javaShaHash);
+		shaPrefix.update(bufferInput, 300, 700);
+		shaPrefix.doFinal(jdkShaHash, 0);
+		shaOk &= Arrays.equals(jdkShaHash, javaShaHash);
+		if (shaOk == true) {
+			System.out.println("JDK SHA-512");
+			System.out.println("ok");
+		} else {
+			System.out.println("JDK SHA-512 failed");
+		}
+
+		// Blake2bVector: equal to Blake2b, if available
+		testVector();
+		
+		// test allocation-free update/compress/doFinal cycle:
+		testAllocation();
+	}
+	
+	/**
+	 * Sequential computation of the Tree Hashing Mode 
+	 * (fanout > 1), layer by layer with Blake2b
+	 */
+	private static byte[] treeReference(byte[] message, int digestLength, 
+			int fanout, int depth, int leafLength, int innerHashLength) {
+		
+		int numberOfNodes = Math.max(1, (message.length + leafLength - 1) / leafLength);
+		byte[] layer = new byte[numberOfNodes * innerHashLength];
+		for (int i = 0; i < numberOfNodes; i++) {
+			Blake2b leaf = new Blake2b(null, innerHashLength, null, null, 
+					fanout, depth, leafLength, i, 0, innerHashLength);
+			leaf.setLastNode(i == numberOfNodes - 1);
+			leaf.update(message, i * leafLength, 
+					Math.min(leafLength, message.length - i * leafLength));
+			leaf.doFinal(layer, i * innerHashLength);
+		}
+		for (int nodeDepth = 1; ; nodeDepth++) {
+			int parents = (numberOfNodes + fanout - 1) / fanout;
+			if ( (depth == 255) ? parents == 1 : nodeDepth == depth - 1) {
+				byte[] root = new byte[digestLength];
+				Blake2b rootNode = new Blake2b(null, digestLength, null, null, 
+						fanout, depth, leafLength, 0, nodeDepth, innerHashLength);
+				rootNode.setLastNode(true);
+				rootNode.update(layer, 0, layer.length);
+				rootNode.doFinal(root, 0);
+				return root;
+			}
+			byte[] parentLayer = new byte[parents * innerHashLength];
+			int childrenLength = fanout * innerHashLength;
+			for (int i = 0; i < parents; i++) {
+				Blake2b node = new Blake2b(null, innerHashLength, null, null, 
+						fanout, depth, leafLength, i, nodeDepth, innerHashLength);
+				node.setLastNode(i == parents - 1);
+				node.update(layer, i * childrenLength, 
+						Math.min(childrenLength, layer.length - i * childrenLength));
+				node.doFinal(parentLayer, i * innerHashLength);
+			}
+			layer = parentLayer;
+			numberOfNodes = parents;
+		}
+	}
+	
+	/**
+	 * Compares Blake2bVector with Blake2b, unkeyed and keyed, 
+	 * with split updates. Blake2bVector is in the source root 
+	 * Digest/vector and requires --add-modules jdk.incubator.vector, 
+	 * it is loaded by reflection and the test is skipped if 
+	 * it is not available. 
+	 */
+	private static void testVector() {
+		
+		java.lang.reflect.Constructor<?> vectorConstructor;
+		try {
+			vectorConstructor = Class.forName("cologne.eck.dr.op.crypto.digest.Blake2bVector")
+					.getConstructor(byte[].class, int.class, byte[].class, byte[].class);
+		} catch (ReflectiveOperationException | LinkageError e) {
+			System.out.println("Blake2bVector test skipped: not available");
+			return;
+		}
+		byte[] input = new byte[1200];
+		for (int i = 0; i < input.length; i++) {
+			input[i] = (byte) (i * 7);
+		}
+		byte[] key = hex2bytes(keyedTestVectors[0][1]);
+		byte[] referenceHash = new byte[64];
+		byte[] vectorHash = new byte[64];
+		boolean vectorOk = true;
+		try {
+			for (byte[] k : new byte[][] { null, key }) {
+				for (int len = 0; len <= input.length; len += 37) {
+					Blake2b reference = new Blake2b(k, 64, null, null);
+					reference.update(input, 0, len);
+					reference.doFinal(referenceHash, 0);
+					// split: block, single byte, rest
+					Blake2b vector = (Blake2b) vectorConstructor.newInstance(k, 64, null, null);
+					int first = Math.min(len, 128);
+					vector.update(input, 0, first);
+					// the copy keeps the implementation:
+					Blake2b vectorCopy = vector.copy();
+					vectorOk &= vectorCopy.getClass() == vector.getClass();
+					if (first < len) {
+						vector.update(input[first]);
+						vector.update(input, first + 1, len - first - 1);
+						vectorCopy.update(input, first, len - first);
+					}
+					vector.doFinal(vectorHash, 0);
+					vectorOk &= Arrays.equals(referenceHash, vectorHash);
+					vectorCopy.doFinal(vectorHash, 0);
+					vectorOk &= Arrays.equals(referenceHash, vectorHash);
+				}
+			}
+		} catch (ReflectiveOperationException e) {
+			vectorOk = false;
+		}
+		if (vectorOk == true) {
+			System.out.println("Blake2bVector");
+			System.out.println("ok");
+		} else {
+			System.out.println("Blake2bVector failed");
+		}
+	}
+	
+	/**
+	 * Checks that the steady-state cycle of update, doFinal and reset 
+	 * does not allocate any memory. This requires a JVM that supports 
+	 * com.sun.management.ThreadMXBean (HotSpot, OpenJ9).
+	 */
+	private static void testAllocation() {
+		
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if ( ! (bean instanceof com.sun.management.ThreadMXBean) ) {
+			System.out.println("Allocation test skipped: not supported by this JVM");
+			return;
+		}
+		com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+		
+		Blake2b blake2b = new Blake2b();
+		byte[] input = new byte[1000];
+		byte[] hash = new byte[64];
+		int numberOfHashes = 100000;
+		
+		// warm up, let the JIT compile the hot path:
+		for (int i = 0; i < numberOfHashes; i++) {
+			blake2b.update(input, 0, (i & 511) + 1);
+			blake2b.update( (byte) i);
+			blake2b.doFinal(hash, 0);
+			blake2b.reset();
+		}
+		long before = threadBean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < numberOfHashes; i++) {
+			blake2b.update(input, 0, (i & 511) + 1);
+			blake2b.update( (byte) i);
+			blake2b.doFinal(hash, 0);
+			blake2b.reset();
+		}
+		long allocated = threadBean.getCurrentThreadAllocatedBytes() - before;
+		// the measurement itself may allocate a few bytes:
+		if (allocated / numberOfHashes == 0) {
+			System.out.println("Allocation per hash: 0 bytes");
+			System.out.println("ok");
+		} else {
+			System.out.println("Allocation test failed");
+			System.out.println("allocated bytes per hash: " + (allocated / numberOfHashes));
+		}
 	}
 }
@@ -0,0 +1,214 @@
+package cologne.eck.dr.op.crypto.digest.test;
+
+/*
+ * Performance test class for Hash Function Blake2b
+ * Copyright (C) 2016  Axel von dem Bruch
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License 
+ * along with this library.
+ */
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.Arrays;
+
+import cologne.eck.dr.op.crypto.digest.Blake2b;
+import cologne.eck.dr.op.crypto.digest.Blake2bProvider;
+import cologne.eck.dr.op.crypto.digest.Blake2bUnrolled;
+import cologne.eck.dr.op.crypto.digest.Digest;
+import cologne.eck.dr.op.crypto.digest.MappedFileHasher;
+
+
+public class TestBlake2bPerformance {
+	
+	// size of the input for one hash value
+	private static final int MESSAGE_SIZE = 1024 * 1024; // 1 MiB
+	// number of hashes for warm up and measurement
+	private static final int WARM_UP = 200;
+	private static final int ITERATIONS = 500;
+	// size of the temporary file for file hashing
+	private static final int FILE_SIZE = 256 * 1024 * 1024; // 256 MiB
+
+	public TestBlake2bPerformance() {
+	}
+
+
+	public static void main(String[] args) throws IOException, NoSuchAlgorithmException {
+		
+		System.out.println(
+				"Java version: " + System.getProperty("java.version") + "\n" +
+				"Java VM: " + System.getProperty("java.vm.name") + "\n" +
+				"Java VM version: " + System.getProperty("java.vm.version") + "\n" + 
+				 "Operating system architecture: "  + System.getProperty("os.arch") + "\n" +
+				"Operating system name: "  + System.getProperty("os.name") + "\n" +
+				"Operating system version: " + System.getProperty("os.version") + "\n" + 
+				"Number of cores: " + Runtime.getRuntime().availableProcessors() + "\n"
+				);
+		
+		byte[] message = new byte[MESSAGE_SIZE];
+		for (int i = 0; i < message.length; i++) {
+			message[i] = (byte) i;
+		}
+		
+		System.out.println("\n===== Single thread throughput =====");
+		
+		byte[] hash1 = throughput(new Blake2b(), "Blake2b", message);
+		byte[] hash2 = throughput(new Blake2bUnrolled(), "Blake2bUnrolled", message);
+		if (Arrays.equals(hash1, hash2) == false) {
+			System.out.println("Blake2bUnrolled failed: different hash value");
+		}
+		// Blake2bVector if enabled by -Dcologne.eck.blake2b.vector=true 
+		// (requires --add-modules jdk.incubator.vector)
+		Digest selected = Blake2b.newInstance();
+		byte[] hash3 = throughput(selected, selected.getClass().getSimpleName(), message);
+		if (Arrays.equals(hash1, hash3) == false) {
+			System.out.println(selected.getClass().getSimpleName() + " failed: different hash value");
+		}
+		
+		System.out.println("\n===== JCA MessageDigest =====");
+		
+		Provider provider = new Blake2bProvider();
+		throughput(MessageDigest.getInstance("BLAKE2B-512", provider), message);
+		throughput(MessageDigest.getInstance("SHA-512", provider), message);
+		// JDK provider, may use SHA-512 intrinsics:
+		throughput(MessageDigest.getInstance("SHA-512"), message);
+		
+		System.out.println("\n===== File hashing =====");
+		
+		Path file = Files.createTempFile("blake2b", ".tmp");
+		try {
+			try (OutputStream out = Files.newOutputStream(file)) {
+				for (int i = 0; i < FILE_SIZE / MESSAGE_SIZE; i++) {
+					out.write(message);
+				}
+			}
+			// first round reads the file into the page cache
+			for (int round = 0; round < 3; round++) {
+				byte[] streamHash = streamFile(file);
+				byte[] mappedHash = mappedFile(file);
+				if (Arrays.equals(streamHash, mappedHash) == false) {
+					System.out.println("MappedFileHasher failed: different hash value");
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+	
+	/**
+	 * Hashes the message several times by a JCA MessageDigest 
+	 * and prints the throughput
+	 * 
+	 * @param md		the MessageDigest to test
+	 * @param message	the input for each hash value
+	 */
+	private static void throughput(MessageDigest md, byte[] message) {
+		
+		for (int i = 0; i < WARM_UP; i++) {
+			md.update(message, 0, message.length);
+			md.digest();
+		}		
+		long start = System.nanoTime(); // start timer
+		for (int i = 0; i < ITERATIONS; i++) {
+			md.update(message, 0, message.length);
+			md.digest();
+		}
+		long time = System.nanoTime() - start;
+		
+		double megaBytesPerSecond = ((double) message.length * ITERATIONS / (1024 * 1024)) 
+				/ (time / 1000000000.0);
+		System.out.println("\n" + md.getAlgorithm() + " (" + md.getProvider().getName() + ")");
+		System.out.println("time in ms: " + (time / 1000000));
+		System.out.println("MiB/s: " + (int) megaBytesPerSecond);
+	}
+	
+	// reads the file in byte[] chunks
+	private static byte[] streamFile(Path file) throws IOException {
+		
+		long start = System.nanoTime(); // start timer
+		Blake2b digest = new Blake2bUnrolled();
+		byte[] chunk = new byte[64 * 1024];
+		try (InputStream in = new FileInputStream(file.toFile())) {
+			int len;
+			while ((len = in.read(chunk)) > 0) {
+				digest.update(chunk, 0, len);
+			}
+		}
+		byte[] hash = new byte[64];
+		digest.doFinal(hash, 0);
+		printFileThroughput("FileInputStream", System.nanoTime() - start);
+		return hash;
+	}
+	
+	// maps the file in windows
+	private static byte[] mappedFile(Path file) throws IOException {
+		
+		long start = System.nanoTime(); // start timer
+		byte[] hash = MappedFileHasher.hash(file);
+		printFileThroughput("MappedFileHasher", System.nanoTime() - start);
+		return hash;
+	}
+	
+	private static void printFileThroughput(String name, long time) {
+		double megaBytesPerSecond = ((double) FILE_SIZE / (1024 * 1024)) 
+				/ (time / 1000000000.0);
+		System.out.println("\n" + name);
+		System.out.println("time in ms: " + (time / 1000000));
+		System.out.println("MiB/s: " + (int) megaBytesPerSecond);
+	}
+	
+	/**
+	 * Hashes the message several times and prints the throughput
+	 * 
+	 * @param digest	the digest to test
+	 * @param name		the name to print
+	 * @param message	the input for each hash value
+	 * 
+	 * @return			the hash value of the message
+	 */
+	private static byte[] throughput(Digest digest, String name, byte[] message) {
+		
+		byte[] hash = new byte[64];
+		for (int i = 0; i < WARM_UP; i++) {
+			digest.update(message, 0, message.length);
+			digest.doFinal(hash, 0);
+			digest.reset();
+		}		
+		long start = System.nanoTime(); // start timer
+		for (int i = 0; i < ITERATIONS; i++) {
+			digest.update(message, 0, message.length);
+			digest.doFinal(hash, 0);
+			digest.reset();
+		}
+		long time = System.nanoTime() - start;
+		
+		double megaBytesPerSecond = ((double) message.length * ITERATIONS / (1024 * 1024)) 
+				/ (time / 1000000000.0);
+		System.out.println("\n" + name);
+		System.out.println("time in ms: " + (time / 1000000));
+		System.out.println("MiB/s: " + (int) megaBytesPerSecond);
+		
+		digest.update(message, 0, message.length);
+		digest.doFinal(hash, 0);
+		digest.reset();
+		return hash;
+	}
+}
@@ -0,0 +1,363 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Hash Function Blake2s
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  BLAKE2s is the 32-bit variant of BLAKE2:
+    the state consists of 32-bit words, a block has 64 bytes,
+    the compression function has 10 rounds.
+    BLAKE2s is optimized for 8- to 32-bit platforms and produces
+    digests of any size between 1 and 32 bytes.
+      Reference Implementation and Description can be found at: https://blake2.net/
+      RFC 7693: https://tools.ietf.org/html/rfc7693
+
+   Example code using this class:
+
+      Blake2s b = new Blake2s(); // no key, no salt, no personalization
+      b.update( anyByteArray );
+      byte[] hash = new byte[32];// full length of hash value
+      b.doFinal(hash, 0); // result now holds the hash value (32 byte)
+
+      Blake2s b2sX = new Blake2s(
+      		anyKeyAsByteArray, // 0 - 32 Byte or null
+      		outputLength, // 1 - 32
+      		anySaltAsByteArray, // exactly 8 Byte or null
+      		anyPersonalizationAsByteArray); // exactly 8 Byte or null
+      b2sX.update( anyByteArray );
+      byte[] resultX = new byte[outputLength];
+      b2sX.doFinal(resultX, 0); // resultX now holds the hash value
+*/
+
+import java.util.Arrays;
+
+
+public class Blake2s implements Digest {
+
+	final static int blake2s_IV[] =
+			// Blake2s Initialization Vector:
+			// The same as SHA-256 IV.
+		{
+		  0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a,
+		  0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+		};
+
+	final static byte[][] blake2s_sigma = // Message word permutations
+		{
+		  {  0,  1,  2,  3,  4,  5,  6,  7,  8,  9, 10, 11, 12, 13, 14, 15 } ,
+		  { 14, 10,  4,  8,  9, 15, 13,  6,  1, 12,  0,  2, 11,  7,  5,  3 } ,
+		  { 11,  8, 12,  0,  5,  2, 15, 13, 10, 14,  3,  6,  7,  1,  9,  4 } ,
+		  {  7,  9,  3,  1, 13, 12, 11, 14,  2,  6,  5, 10,  4,  0, 15,  8 } ,
+		  {  9,  0,  5,  7,  2,  4, 10, 15, 14,  1, 11, 12,  6,  8,  3, 13 } ,
+		  {  2, 12,  6, 10,  0, 11,  8,  3,  4, 13,  7,  5, 15, 14,  1,  9 } ,
+		  { 12,  5,  1, 15, 14, 13,  4, 10,  0,  7,  6,  3,  9,  2,  8, 11 } ,
+		  { 13, 11,  7, 14, 12,  1,  3,  9,  5,  0, 15,  4,  8,  6,  2, 10 } ,
+		  {  6, 15, 14,  9, 11,  3,  0,  8, 12,  2, 13,  7,  1,  4, 10,  5 } ,
+		  { 10,  2,  8,  4,  7,  6,  1,  5, 15, 11,  9, 14,  3, 12, 13 , 0 }
+		};
+
+	private final static int ROUNDS = 10;
+	private final static int BLOCK_LENGTH_BYTES = 64;// bytes
+
+	// General parameters:
+	private int digestLength = 32; // 1- 32 bytes
+	private int keyLength = 0; // 0 - 32 bytes for keyed hashing for MAC
+	private byte[] salt = null;//new byte[8];
+	private byte[] personalization = null;//new byte[8];
+
+	// whenever this buffer overflows, it will be processed
+	// in the compress() function.
+	// For performance issues, long messages will not use this buffer.
+	private byte[] buffer = new byte[BLOCK_LENGTH_BYTES];
+	// Position of last inserted byte:
+	private int bufferPos = 0;// a value from 0 up to 64
+
+	private int[] internalState = new int[16]; // In the Blake2s paper it is called: v
+	private int[] chainValue = new int[8]; // state vector, in the Blake2s paper it is called: h
+	// message words of the current block,
+	// reused for every compression to avoid allocations:
+	private int[] m = new int[16];
+
+	private int t0 = 0; // holds last significant bits, counter (counts bytes)
+	private int t1 = 0; // counter: Length up to 2^64 are supported
+	private int f0 = 0; // finalization flag, for last block: ~0
+
+	// keyed hashing: the padded key block, processed again after reset()
+	private byte[] keyBlock = null;
+
+	public Blake2s() {
+		this(null, 32, null, null);
+	}
+
+	public Blake2s(byte[] key) {
+		this(key, 32, null, null);
+	}
+
+	/**
+	 * @param key				the key (0 - 32 bytes) or null
+	 * @param _digestLength		the length of the hash value (1 - 32 bytes)
+	 * @param _salt				the salt (8 bytes) or null
+	 * @param _personalization	the personalization string (8 bytes) or null
+	 */
+	public Blake2s(
+			byte[] key,
+			int _digestLength,
+			byte[] _salt,
+			byte[] _personalization) {
+
+		if (_digestLength < 1 || _digestLength > 32) {
+			throw new IllegalArgumentException("Invalid digest length (required: 1 - 32)");
+		}
+		digestLength = _digestLength;
+		if (_salt != null) {
+			if (_salt.length != 8) {
+				throw new IllegalArgumentException("salt length must be exactly 8 bytes");
+			}
+			salt = _salt.clone();
+		}
+		if (_personalization != null) {
+			if (_personalization.length != 8) {
+				throw new IllegalArgumentException("personalization length must be exactly 8 bytes");
+			}
+			personalization = _personalization.clone();
+		}
+		if (key != null && key.length > 0) {
+			if (key.length > 32) {
+				throw new IllegalArgumentException("Keys > 32 are not supported");
+			}
+			keyLength = key.length;
+			keyBlock = new byte[BLOCK_LENGTH_BYTES];
+			System.arraycopy(key, 0, keyBlock, 0, key.length); // zero padding
+		}
+		init();
+	}
+
+	// initialize chainValue and the buffer:
+	// the key block is the first block of keyed digests
+	private void init() {
+
+		chainValue[0] = blake2s_IV[0] ^ ( digestLength | (keyLength << 8)
+				| 0x01010000 );// fanout = 1; depth = 1
+		chainValue[1] = blake2s_IV[1];
+		chainValue[2] = blake2s_IV[2];
+		chainValue[3] = blake2s_IV[3];
+		chainValue[4] = blake2s_IV[4];
+		chainValue[5] = blake2s_IV[5];
+		if (salt != null) {
+			chainValue[4] ^= bytes2int(salt, 0);
+			chainValue[5] ^= bytes2int(salt, 4);
+		}
+		chainValue[6] = blake2s_IV[6];
+		chainValue[7] = blake2s_IV[7];
+		if (personalization != null) {
+			chainValue[6] ^= bytes2int(personalization, 0);
+			chainValue[7] ^= bytes2int(personalization, 4);
+		}
+		if (keyBlock != null) {
+			System.arraycopy(keyBlock, 0, buffer, 0, BLOCK_LENGTH_BYTES);
+			bufferPos = BLOCK_LENGTH_BYTES;
+		}
+	}
+
+	/**
+	 * Processes the given message
+	 *
+	 * @param message
+	 *            byte array containing the message to be processed
+	 */
+	public void update(byte[] message) {
+		if (message == null) {
+			return;
+		}
+		update(message, 0, message.length);
+	}
+
+	/**
+	 * Processes one single byte
+	 *
+	 * @param b
+	 *            single byte to be processed
+	 */
+	public void update(byte b) {
+
+		if (bufferPos == BLOCK_LENGTH_BYTES) { // full buffer
+			incrementCounter(BLOCK_LENGTH_BYTES);
+			compress(buffer, 0);
+			bufferPos = 0;
+		}
+		buffer[bufferPos++] = b;
+	}
+
+	/**
+	 * Processes a number of bytes of the given message
+	 * from a start position up to offset+len
+	 *
+	 * @param message
+	 *            byte array containing the message to be processed
+	 * @param offset
+	 *            position of message to start from
+	 * @param len
+	 *            number of bytes to be processed.
+	 */
+	public void update(byte[] message, int offset, int len) {
+
+		if (message == null || len == 0) return;
+
+		int remainingLength = 0; // left bytes of buffer
+
+		if (bufferPos != 0) { // commenced, incomplete buffer
+
+			// complete the buffer:
+			remainingLength = BLOCK_LENGTH_BYTES - bufferPos;
+			if (remainingLength < len) { // full buffer + at least 1 byte
+				System.arraycopy(message, offset, buffer, bufferPos,
+						remainingLength);
+				incrementCounter(BLOCK_LENGTH_BYTES);
+				compress(buffer, 0);
+				bufferPos = 0;
+			} else {
+				System.arraycopy(message, offset, buffer, bufferPos, len);
+				bufferPos += len;
+				return;
+			}
+		}
+		// process blocks except last block (also if last block is full)
+		int messagePos;
+		int blockWiseLastPos = offset + len - BLOCK_LENGTH_BYTES;
+		for (messagePos = offset + remainingLength; messagePos < blockWiseLastPos; messagePos += BLOCK_LENGTH_BYTES) {
+			// without buffer:
+			incrementCounter(BLOCK_LENGTH_BYTES);
+			compress(message, messagePos);
+		}
+		//fill the buffer with left bytes, this might be a full block
+		System.arraycopy(message, messagePos, buffer, 0, offset + len - messagePos);
+		bufferPos += offset + len - messagePos;
+	}
+
+	/**
+	 * Calculates the final digest value
+	 *
+	 * @param out
+	 * 			the calculated digest will be copied in this array
+	 * @param outOffset
+	 * 			start position of the array out, where the digest is copied
+	 */
+	public void doFinal(byte[] out, int outOffset) {
+
+		f0 = 0xFFFFFFFF;
+		incrementCounter(bufferPos);
+		// zero padding of the last block:
+		// the buffer is not cleared after each compression
+		Arrays.fill(buffer, bufferPos, BLOCK_LENGTH_BYTES, (byte) 0);
+		compress(buffer, 0);
+		bufferPos = 0;
+
+		// only the first digestLength bytes are used:
+		for (int i = 0; i < digestLength; i++) {
+			out[outOffset + i] = (byte) (chainValue[i >>> 2] >>> ((i & 3) << 3));
+		}
+	}
+
+	/**
+	 * Reset the hash function to use again after doFinal().
+	 * Keyed digests process the key block again.
+	 */
+	public void reset() {
+		bufferPos = 0;
+		f0 = 0;
+		t0 = 0;
+		t1 = 0;
+		Arrays.fill(buffer,  (byte) 0);
+		Arrays.fill(internalState, 0);
+		Arrays.fill(m, 0);
+		init();
+	}
+
+	public String getName() {
+		return "Blake2s";
+	}
+
+	public int getOutputSize() {
+		return digestLength;
+	}
+
+	// 64 bit byte counter
+	private void incrementCounter(int increment) {
+		t0 += increment;
+		if (Integer.compareUnsigned(t0, increment) < 0) {
+			t1++;
+		}
+	}
+
+	private void compress(byte[] message, int messagePos) {
+
+		// read the message words in place:
+		for (int j = 0; j < 16; j++) {
+			m[j] = bytes2int(message, messagePos + j*4);
+		}
+		// initialize v:
+		System.arraycopy(chainValue, 0, internalState, 0, 8);
+		System.arraycopy(blake2s_IV, 0, internalState, 8, 4);
+		internalState[12] = t0 ^ blake2s_IV[4];
+		internalState[13] = t1 ^ blake2s_IV[5];
+		internalState[14] = f0 ^ blake2s_IV[6];
+		internalState[15] = blake2s_IV[7];
+
+		for (int round = 0; round < ROUNDS; round++) {
+
+			// G apply to columns of internalState:
+		    G(m[blake2s_sigma[round][0]], m[blake2s_sigma[round][1]], 0,4,8,12);
+		    G(m[blake2s_sigma[round][2]], m[blake2s_sigma[round][3]], 1,5,9,13);
+		    G(m[blake2s_sigma[round][4]], m[blake2s_sigma[round][5]], 2,6,10,14);
+		    G(m[blake2s_sigma[round][6]], m[blake2s_sigma[round][7]], 3,7,11,15);
+		    // G apply to diagonals of internalState:
+		    G(m[blake2s_sigma[round][8]], m[blake2s_sigma[round][9]], 0,5,10,15);
+		    G(m[blake2s_sigma[round][10]], m[blake2s_sigma[round][11]], 1,6,11,12);
+		    G(m[blake2s_sigma[round][12]], m[blake2s_sigma[round][13]], 2,7,8,13);
+		    G(m[blake2s_sigma[round][14]], m[blake2s_sigma[round][15]], 3,4,9,14);
+		}
+
+		// update chain values:
+		for( int offset = 0; offset < 8; offset++ ) {
+			chainValue[offset] = chainValue[offset] ^ internalState[offset] ^ internalState[offset + 8];
+		}
+	}
+
+	private void G(int m1, int m2, int posA, int posB, int posC, int posD) {
+
+		internalState[posA] = internalState[posA] + internalState[posB] + m1;
+	    internalState[posD] = Integer.rotateRight(internalState[posD] ^ internalState[posA], 16);
+	    internalState[posC] = internalState[posC] + internalState[posD];
+	    internalState[posB] = Integer.rotateRight(internalState[posB] ^ internalState[posC], 12);
+	    internalState[posA] = internalState[posA] + internalState[posB] + m2;
+	    internalState[posD] = Integer.rotateRight(internalState[posD] ^ internalState[posA], 8);
+	    internalState[posC] = internalState[posC] + internalState[posD];
+	    internalState[posB] = Integer.rotateRight(internalState[posB] ^ internalState[posC], 7);
+	}
+
+	// little-endian byte order!
+	final static int bytes2int(byte[] byteArray, int offset) {
+		return (byteArray[offset] & 0xFF)
+				| ((byteArray[offset + 1] & 0xFF) << 8)
+				| ((byteArray[offset + 2] & 0xFF) << 16)
+				| ((byteArray[offset + 3] & 0xFF) << 24);
+	}
+}
@@ -0,0 +1,142 @@
+package cologne.eck.dr.op.crypto.digest;
+
+/*
+ * Test class for Hash Function Blake2s
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+import java.util.Arrays;
+
+public class TestBlake2s {
+
+	private final static char[] hexArray = "0123456789ABCDEF".toCharArray();
+
+	private static final String[][] unkeyedTestVectors = { // input/message, hash
+		// RFC 7693, Appendix B
+		{"616263",
+			"508c5e8c327c14e2e1a72ba34eeb452f37458b209ed63a294d999b4c86675982"},
+		{"",
+			"69217a3079908094e11121d042354a7c1f55b6482ca1a51e1b250dfd1ed0eef9"}
+	};
+
+	// Vectors from BLAKE2 web site: https://blake2.net/blake2s-test.txt
+	// key: 000102...1f, message: 000102... of the given length
+	private static final String[][] keyedTestVectors = { // message length, hash
+		{"0", "48a8997da407876b3d79c0d92325ad3b89cbb754d86ab71aee047ad345fd2c49"},
+		{"1", "40d15fee7c328830166ac3f918650f807e7e01e177258cdc0a39b11f598066f1"},
+		{"64", "8975b0577fd35566d750b362b0897a26c399136df07bababbde6203ff2954ed4"},
+		{"65", "21fe0ceb0052be7fb0f004187cacd7de67fa6eb0938d927677f2398c132317a8"},
+		{"255", "3fb735061abc519dfe979e54c1ee5bfad0a9d858b3315bad34bde999efd724dd"}
+	};
+
+	//=========================================================================
+	// Helper functions:
+
+	private final static byte[] hex2bytes(String hexString) {
+
+		byte[] byteArray = new byte[hexString.length() / 2];// 2 Character = 1 Byte
+		final char [] hexCharArray = hexString.toCharArray ();
+		for (int i = 0; i < hexString.length(); i+=2) {
+			// 1. char in hex <<4, 2. char in hex
+			byteArray[i / 2] = (byte) ((Character.digit (hexCharArray[i], 16) << 4)
+							+ Character.digit (hexCharArray[i + 1], 16));
+		}
+		return byteArray;
+	}
+
+	private final static String bytes2hex(byte[] bytes) {
+	    char[] hexChars = new char[bytes.length * 2];
+	    for ( int j = 0; j < bytes.length; j++ ) {
+	        int v = bytes[j] & 0xFF;
+	        hexChars[j * 2] = hexArray[v >>> 4];
+	        hexChars[j * 2 + 1] = hexArray[v & 0x0F];
+	    }
+	    return new String(hexChars);
+	}
+
+	private final static byte[] sequence(int len) {
+		byte[] result = new byte[len];
+		for (int i = 0; i < len; i++) {
+			result[i] = (byte) i;
+		}
+		return result;
+	}
+
+	public static void main(String[] args) {
+
+		// test unkeyed test vectors:
+		for (int tv = 0; tv < unkeyedTestVectors.length; tv++) {
+
+			Blake2s blake2s = new Blake2s();
+			blake2s.update(hex2bytes(unkeyedTestVectors[tv][0]));
+			byte[] hash = new byte[32];
+			blake2s.doFinal(hash, 0);
+
+			if (bytes2hex(hash).equals(unkeyedTestVectors[tv][1].toUpperCase())) {
+				System.out.println(unkeyedTestVectors[tv][0] + " without key");
+				System.out.println("ok");
+			} else {
+				System.out.println("Unkeyed test vector failed");
+			}
+		}
+
+		// test keyed test vectors, each twice to test reset():
+		Blake2s blake2sKeyed = new Blake2s(sequence(32));
+		for (int tv = 0; tv < keyedTestVectors.length; tv++) {
+
+			byte[] input = sequence(Integer.parseInt(keyedTestVectors[tv][0]));
+			boolean ok = true;
+			for (int repeat = 0; repeat < 2; repeat++) {
+				blake2sKeyed.update(input);
+				byte[] keyedHash = new byte[32];
+				blake2sKeyed.doFinal(keyedHash, 0);
+				blake2sKeyed.reset();
+				if ( ! bytes2hex(keyedHash).equals(keyedTestVectors[tv][1].toUpperCase())) {
+					ok = false;
+				}
+			}
+			if (ok == true) {
+				System.out.println(keyedTestVectors[tv][0] + " bytes with key");
+				System.out.println("ok");
+			} else {
+				System.out.println("Keyed test vector failed");
+			}
+		}
+
+		// salt, personalization and digest length (Python hashlib),
+		// single bytes and arrays:
+		byte[] input = new byte[1000];
+		for (int i = 0; i < input.length; i++) {
+			input[i] = (byte) (i * 7);
+		}
+		Blake2s blake2sX = new Blake2s(null, 20, "saltsalt".getBytes(), "personal".getBytes());
+		blake2sX.update(input[0]);
+		blake2sX.update(input, 1, 500);
+		for (int i = 501; i < 600; i++) {
+			blake2sX.update(input[i]);
+		}
+		blake2sX.update(Arrays.copyOfRange(input, 600, 1000));
+		byte[] hashX = new byte[20];
+		blake2sX.doFinal(hashX, 0);
+		if (bytes2hex(hashX).equals("DD516B4FC5F5EC9A7986B7470B6373FFC1FBC4D3")) {
+			System.out.println("Salt and personalization");
+			System.out.println("ok");
+		} else {
+			System.out.println("Salt and personalization failed");
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Hash Function Blake2b for off-heap input
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Same function as Blake2bUnrolled, additionally processes
+    MemorySegments (java.lang.foreign, Java 22 or later):
+
+    The message words of complete blocks are read as 64-bit
+    little-endian words directly from the segment, without copies
+    into heap arrays. Only the bytes, which complete the buffer
+    and the last block (up to 128 bytes each) are processed by
+    the buffer. Offsets and lengths are long values, so segments
+    larger than 2 GB are supported.
+
+    This class requires JDK 22 or later: java.lang.foreign is
+    final since JDK 22 (JDK 21 only with --enable-preview). All other
+    classes of the package compile with older versions, so this file
+    is in the separate source root Digest/java22, which is only added
+    to the build for JDK 22 and later:
+
+      javac --release 22 -d classes <sources of the package> Digest/java22/*.java
+
+    The update methods for segments are in this subclass of
+    Blake2bUnrolled instead of Blake2b, because Blake2b must
+    compile with older JDKs. The subclass reads complete blocks
+    by package-private methods of Blake2b.
+
+   Example code using this class:
+
+      try (Arena arena = Arena.ofConfined()) {
+          MemorySegment secret = arena.allocate(size);
+          ...
+          Blake2bMemorySegment blake2b = new Blake2bMemorySegment();
+          blake2b.update(secret, 0, secret.byteSize());
+          blake2b.doFinal(hash, 0);
+      }
+*/
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+
+public class Blake2bMemorySegment extends Blake2bUnrolled {
+
+	private final static int BLOCK_LENGTH_BYTES = 128;
+
+	private final static ValueLayout.OfLong LONG_LE =
+			ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+	public Blake2bMemorySegment() {
+		super();
+	}
+
+	public Blake2bMemorySegment(byte[] key) {
+		super(key);
+	}
+
+	public Blake2bMemorySegment(
+			byte[] key,
+			int _digestLength,
+			byte[] _salt,
+			byte[] _personalization) {
+		super(key, _digestLength, _salt, _personalization);
+	}
+
+	/**
+	 * Copy constructor: copies the intermediate state
+	 *
+	 * @param t		the digest to copy
+	 */
+	public Blake2bMemorySegment(Blake2b t) {
+		super(t);
+	}
+
+	@Override
+	public Blake2b copy() {
+		return new Blake2bMemorySegment(this);
+	}
+
+	/**
+	 * Processes a part of a memory segment (heap or off-heap)
+	 *
+	 * @param segment	the segment containing the message
+	 * @param offset	position of the segment to start from
+	 * @param length	number of bytes to be processed
+	 */
+	public void update(MemorySegment segment, long offset, long length) {
+
+		if (offset < 0 || length < 0 || length > segment.byteSize() - offset) {
+			throw new IllegalArgumentException("Invalid offset or length of segment");
+		}
+		if (length == 0) return;
+
+		if (getBufferPos() != 0 || length <= BLOCK_LENGTH_BYTES) {
+			// complete the buffer:
+			int n = (int) Math.min(length, BLOCK_LENGTH_BYTES - getBufferPos());
+			updateBytes(segment, offset, n);
+			offset += n;
+			length -= n;
+			if (length == 0) {
+				return;
+			}
+			// full buffer + at least 1 byte
+			compressBuffer();
+		}
+		// process blocks except last block (also if last block is full)
+		long[] m = getMessageWords();
+		for ( ; length > BLOCK_LENGTH_BYTES; offset += BLOCK_LENGTH_BYTES, length -= BLOCK_LENGTH_BYTES) {
+			for (int j = 0; j < 16; j++) {
+				m[j] = segment.get(LONG_LE, offset + j * 8);
+			}
+			compressMessageWords();
+		}
+		// fill the buffer with left bytes, this might be a full block
+		updateBytes(segment, offset, (int) length);
+	}
+
+	/**
+	 * Processes a memory segment (heap or off-heap)
+	 *
+	 * @param segment	the segment containing the message
+	 */
+	public void update(MemorySegment segment) {
+		update(segment, 0, segment.byteSize());
+	}
+
+	// up to 128 bytes into the buffer
+	private void updateBytes(MemorySegment segment, long offset, int len) {
+		for (int i = 0; i < len; i++) {
+			update(segment.get(ValueLayout.JAVA_BYTE, offset + i));
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * JCA MacSpi for keyed Hash Function Blake2b
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Keyed Blake2b (key 1 - 64 bytes, MAC length 1 - 64 bytes) as Mac,
+    registered by Blake2bProvider as BLAKE2BMAC-8 ... BLAKE2BMAC-512.
+    The key block is processed once by init, doFinal and reset restore
+    the state after the key block. clone() copies the intermediate state.
+*/
+
+import java.nio.ByteBuffer;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.InvalidKeyException;
+import java.security.Key;
+import java.security.spec.AlgorithmParameterSpec;
+
+import javax.crypto.MacSpi;
+
+
+public class Blake2bMac extends MacSpi implements Cloneable {
+
+	private final int macLength;
+	private Blake2b digest = null; // null before init
+
+	/**
+	 * @param _macLength	the length of the MAC (1 - 64 bytes)
+	 */
+	public Blake2bMac(int _macLength) {
+		if (_macLength < 1 || _macLength > 64) {
+			throw new IllegalArgumentException("Invalid MAC length (required: 1 - 64)");
+		}
+		macLength = _macLength;
+	}
+
+	@Override
+	protected int engineGetMacLength() {
+		return macLength;
+	}
+
+	@Override
+	protected void engineInit(Key key, AlgorithmParameterSpec params)
+			throws InvalidKeyException, InvalidAlgorithmParameterException {
+
+		if (params != null) {
+			throw new InvalidAlgorithmParameterException("Blake2b MAC does not use parameters");
+		}
+		byte[] keyBytes = (key == null) ? null : key.getEncoded();
+		if (keyBytes == null || keyBytes.length < 1 || keyBytes.length > 64) {
+			throw new InvalidKeyException("Invalid key length (required: 1 - 64 bytes)");
+		}
+		digest = Blake2b.newInstance(keyBytes, macLength, null, null);
+		// process the key block:
+		digest.reset();
+	}
+
+	@Override
+	protected void engineUpdate(byte input) {
+		digest.update(input);
+	}
+
+	@Override
+	protected void engineUpdate(byte[] input, int offset, int len) {
+		digest.update(input, offset, len);
+	}
+
+	@Override
+	protected void engineUpdate(ByteBuffer input) {
+		digest.update(input);
+	}
+
+	@Override
+	protected byte[] engineDoFinal() {
+		byte[] mac = new byte[macLength];
+		digest.doFinal(mac, 0);
+		digest.reset();
+		return mac;
+	}
+
+	@Override
+	protected void engineReset() {
+		if (digest != null) {
+			digest.reset();
+		}
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException {
+		Blake2bMac copy = (Blake2bMac) super.clone();
+		if (digest != null) {
+			copy.digest = digest.copy(); // same implementation
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,84 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * JCA MessageDigestSpi for Hash Function Blake2b
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Unkeyed Blake2b with digest length 1 - 64 bytes as MessageDigest,
+    registered by Blake2bProvider as BLAKE2B-8 ... BLAKE2B-512.
+    clone() copies the intermediate state.
+*/
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigestSpi;
+
+
+public class Blake2bMessageDigest extends MessageDigestSpi implements Cloneable {
+
+	private Blake2b digest;
+
+	/**
+	 * @param digestLength	the length of the hash value (1 - 64 bytes)
+	 */
+	public Blake2bMessageDigest(int digestLength) {
+		digest = Blake2b.newInstance(null, digestLength, null, null);
+	}
+
+	@Override
+	protected int engineGetDigestLength() {
+		return digest.getOutputSize();
+	}
+
+	@Override
+	protected void engineUpdate(byte input) {
+		digest.update(input);
+	}
+
+	@Override
+	protected void engineUpdate(byte[] input, int offset, int len) {
+		digest.update(input, offset, len);
+	}
+
+	@Override
+	protected void engineUpdate(ByteBuffer input) {
+		digest.update(input);
+	}
+
+	@Override
+	protected byte[] engineDigest() {
+		byte[] hash = new byte[digest.getOutputSize()];
+		digest.doFinal(hash, 0);
+		digest.reset();
+		return hash;
+	}
+
+	@Override
+	protected void engineReset() {
+		digest.reset();
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException {
+		Blake2bMessageDigest copy = (Blake2bMessageDigest) super.clone();
+		copy.digest = digest.copy(); // same implementation
+		return copy;
+	}
+}
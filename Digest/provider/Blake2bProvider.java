@@ -0,0 +1,98 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * JCA Provider for Hash Function Blake2b
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  Provides the digests of this library to the Java Cryptography Architecture:
+
+      MessageDigest  BLAKE2B-8, BLAKE2B-16, ... BLAKE2B-512  (digest length in bits)
+      Mac            BLAKE2BMAC-8, ... BLAKE2BMAC-512 (alias BLAKE2BMAC for 512 bits)
+      MessageDigest  SHA-512  (SHA512Digest)
+
+    Some JDKs (Oracle JDK) only accept Mac implementations of signed
+    providers, OpenJDK does not check the signature.
+
+   Example code using this class:
+
+      Provider provider = new Blake2bProvider();
+      MessageDigest md = MessageDigest.getInstance("BLAKE2B-256", provider);
+      byte[] hash = md.digest( anyByteArray );
+
+      Mac mac = Mac.getInstance("BLAKE2BMAC-256", provider);
+      mac.init(new SecretKeySpec(anyKeyAsByteArray, "BLAKE2BMAC-256"));
+      byte[] tag = mac.doFinal( anyByteArray );
+
+    or register the provider: Security.addProvider(new Blake2bProvider());
+*/
+
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.Collections;
+
+
+public final class Blake2bProvider extends Provider {
+
+	private static final long serialVersionUID = 1L;
+
+	public final static String PROVIDER_NAME = "Blake2b";
+
+	@SuppressWarnings("deprecation") // Provider(String, String, String) requires Java 9
+	public Blake2bProvider() {
+		super(PROVIDER_NAME, 1.0, "Blake2b MessageDigest and Mac, SHA-512");
+
+		for (int length = 1; length <= 64; length++) {
+			int bits = length * 8;
+			putService(new LengthService(this, "MessageDigest", "BLAKE2B-" + bits,
+					Blake2bMessageDigest.class.getName(), length));
+			putService(new LengthService(this, "Mac", "BLAKE2BMAC-" + bits,
+					Blake2bMac.class.getName(), length));
+		}
+		putService(new LengthService(this, "Mac", "BLAKE2BMAC",
+				Blake2bMac.class.getName(), 64));
+		putService(new Service(this, "MessageDigest", "SHA-512",
+				SHA512MessageDigest.class.getName(), null, null));
+	}
+
+	/**
+	 * Service for an implementation with a fixed output length
+	 */
+	private static final class LengthService extends Service {
+
+		private final int length;
+
+		LengthService(Provider provider, String type, String algorithm,
+				String className, int _length) {
+			super(provider, type, algorithm, className,
+					Collections.<String>emptyList(), null);
+			length = _length;
+		}
+
+		@Override
+		public Object newInstance(Object constructorParameter) throws NoSuchAlgorithmException {
+			if (getType().equals("MessageDigest")) {
+				return new Blake2bMessageDigest(length);
+			} else {
+				return new Blake2bMac(length);
+			}
+		}
+	}
+}
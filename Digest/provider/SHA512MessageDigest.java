@@ -0,0 +1,73 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * JCA MessageDigestSpi for SHA512Digest
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  The pure Java SHA512Digest as MessageDigest,
+    registered by Blake2bProvider as SHA-512.
+*/
+
+import java.security.MessageDigestSpi;
+
+
+public class SHA512MessageDigest extends MessageDigestSpi implements Cloneable {
+
+	private SHA512Digest digest = new SHA512Digest();
+
+	public SHA512MessageDigest() {
+	}
+
+	@Override
+	protected int engineGetDigestLength() {
+		return digest.getOutputSize();
+	}
+
+	@Override
+	protected void engineUpdate(byte input) {
+		digest.update(input);
+	}
+
+	@Override
+	protected void engineUpdate(byte[] input, int offset, int len) {
+		digest.update(input, offset, len);
+	}
+
+	@Override
+	protected byte[] engineDigest() {
+		// doFinal resets the digest
+		byte[] hash = new byte[digest.getOutputSize()];
+		digest.doFinal(hash, 0);
+		return hash;
+	}
+
+	@Override
+	protected void engineReset() {
+		digest.reset();
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException {
+		SHA512MessageDigest copy = (SHA512MessageDigest) super.clone();
+		copy.digest = new SHA512Digest(digest);
+		return copy;
+	}
+}
@@ -0,0 +1,170 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Digest adapter for the SHA-512 of the Java runtime
+ *
+ * Copyright (C) 2016  Axel von dem Bruch
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License
+ * along with this library.
+ */
+
+
+/*  SHA-512 of the installed providers (usually SUN) as Digest:
+
+    HotSpot replaces the compression function of the SUN provider
+    by intrinsics (SHA extensions or AVX2, if supported by the CPU),
+    these are only used by java.security.MessageDigest, not by
+    the Java code of SHA512Digest. The output is equal to SHA512Digest.
+
+    The copy constructor clones the MessageDigest, so the state
+    after a common prefix (a midstate) can be computed once and
+    copied for each message.
+
+   Example code using this class:
+
+      Catena catena = new CatenaBRG(new JdkSHA512Digest(), null);
+      catena.hashPassword(pwd, salt, data, lambda, garlic, garlic, hash);
+
+      // midstate:
+      JdkSHA512Digest prefix = new JdkSHA512Digest();
+      prefix.update(commonPrefix);
+      JdkSHA512Digest sha = new JdkSHA512Digest(prefix);
+      sha.update(message);
+      sha.doFinal(hash, 0);
+*/
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+
+public class JdkSHA512Digest implements Digest {
+
+	private final static int DIGEST_LENGTH = 64;
+
+	private final MessageDigest md;
+
+	public JdkSHA512Digest() {
+		try {
+			md = MessageDigest.getInstance("SHA-512");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-512 not available", e);
+		}
+	}
+
+	/**
+	 * Copy constructor: copies the state of
+	 * the provided digest (midstate)
+	 *
+	 * @param t		the digest to copy
+	 */
+	public JdkSHA512Digest(JdkSHA512Digest t) {
+		try {
+			md = (MessageDigest) t.md.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException("SHA-512 of provider "
+					+ t.md.getProvider().getName() + " can not be cloned", e);
+		}
+	}
+
+	@Override
+	public void update(byte[] message) {
+		md.update(message);
+	}
+
+	@Override
+	public void update(byte b) {
+		md.update(b);
+	}
+
+	@Override
+	public void update(byte[] message, int offset, int len) {
+		md.update(message, offset, len);
+	}
+
+	/**
+	 * Processes the remaining bytes of the buffer,
+	 * direct buffers are read by the provider
+	 */
+	@Override
+	public void update(ByteBuffer input) {
+		md.update(input);
+	}
+
+	/**
+	 * Writes the hash value and resets the digest
+	 */
+	@Override
+	public void doFinal(byte[] out, int outOffset) {
+		try {
+			md.digest(out, outOffset, DIGEST_LENGTH);
+		} catch (DigestException e) {
+			throw new IllegalArgumentException("Invalid output array or offset", e);
+		}
+	}
+
+	@Override
+	public void reset() {
+		md.reset();
+	}
+
+	@Override
+	public void hash(byte[] out, int outOffset, Segment... parts) {
+		for (Segment part : parts) {
+			if (part.length > 0) {
+				md.update(part.array, part.offset, part.length);
+			}
+		}
+		// resets the digest:
+		doFinal(out, outOffset);
+	}
+
+	@Override
+	public void hash(byte[] out, int outOffset, Segment part1, Segment part2) {
+		if (part1.length > 0) {
+			md.update(part1.array, part1.offset, part1.length);
+		}
+		if (part2.length > 0) {
+			md.update(part2.array, part2.offset, part2.length);
+		}
+		doFinal(out, outOffset);
+	}
+
+	@Override
+	public void hash(byte[] out, int outOffset, Segment part1, Segment part2, Segment part3) {
+		if (part1.length > 0) {
+			md.update(part1.array, part1.offset, part1.length);
+		}
+		if (part2.length > 0) {
+			md.update(part2.array, part2.offset, part2.length);
+		}
+		if (part3.length > 0) {
+			md.update(part3.array, part3.offset, part3.length);
+		}
+		doFinal(out, outOffset);
+	}
+
+	@Override
+	public String getName() {
+		return "SHA-512";
+	}
+
+	@Override
+	public int getOutputSize() {
+		return DIGEST_LENGTH;
+	}
+}
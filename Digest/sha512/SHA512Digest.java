@@ -48,6 +48,11 @@ public class SHA512Digest
     {
         return DIGEST_LENGTH;
     }
+
+    public int getOutputSize()
+    {
+        return DIGEST_LENGTH;
+    }
     
     public static void longToBigEndian(long n, byte[] bs, int off)
     {
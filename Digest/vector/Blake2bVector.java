@@ -0,0 +1,488 @@
+package cologne.eck.dr.op.crypto.digest;
+
+
+/*
+ * Hash Function Blake2b with vectorized compression function
+ * 
+ * Copyright (C) 2016  Axel von dem Bruch
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ * 
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ * 
+ * See:  https://www.gnu.org/licenses/lgpl-2.1.html
+ * You should have received a copy of the GNU General Public License 
+ * along with this library.
+ */
+
+
+/*  Same function as Blake2b, the compression function uses the 
+    Vector API of the JDK (jdk.incubator.vector, JDK 16 or later): 
+    The rows of the internal state are held in four LongVectors 
+    of four lanes (256 bit), so the four column steps and the four 
+    diagonal steps of a round are each computed as one G function. 
+    Between the column and the diagonal steps the rows b, c, d are 
+    rotated by one, two and three lanes. 
+    
+    This class must be compiled and run with: 
+    	--add-modules jdk.incubator.vector
+    so it is in the separate source root Digest/vector, which is 
+    only added to the build together with this option. All other 
+    classes of the package compile without the incubator module. 
+    If the platform does not support 256 bit vectors, the scalar 
+    compression function of Blake2bUnrolled is used. 
+    
+    This engine is not faster than Blake2bUnrolled: on the tested 
+    platforms it reaches about the same throughput on JDK 21, less 
+    on JDK 17 and much less before warm-up. Blake2b.newInstance() 
+    returns this implementation only if the system property 
+    -Dcologne.eck.blake2b.vector=true is set. 
+*/
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+
+public class Blake2bVector extends Blake2bUnrolled {
+	
+	private final static VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+	
+	// vectorized compression only if the hardware supports 256 bit:  
+	private final static boolean SUPPORTED = 
+			LongVector.SPECIES_PREFERRED.vectorBitSize() >= 256;
+	
+	// rotate lanes left by 1, 2, 3 and back (diagonalization): 
+	private final static VectorShuffle<Long> ROTATE_1 = VectorShuffle.fromValues(SPECIES, 1, 2, 3, 0);
+	private final static VectorShuffle<Long> ROTATE_2 = VectorShuffle.fromValues(SPECIES, 2, 3, 0, 1);
+	private final static VectorShuffle<Long> ROTATE_3 = VectorShuffle.fromValues(SPECIES, 3, 0, 1, 2);
+	
+	private final static LongVector IV_LOW = LongVector.fromArray(SPECIES, blake2b_IV, 0);
+	private final static LongVector IV_HIGH = LongVector.fromArray(SPECIES, blake2b_IV, 4);
+	
+	// Message word permutations, ordered for the vector loads of a round: 
+	// first and second word of the columns, first and second word of the diagonals
+	private final static int[][] SIGMA_GATHER = new int[12][16];
+	static {
+		final byte[][] sigma = {
+			  {  0,  1,  2,  3,  4,  5,  6,  7,  8,  9, 10, 11, 12, 13, 14, 15 } ,
+			  { 14, 10,  4,  8,  9, 15, 13,  6,  1, 12,  0,  2, 11,  7,  5,  3 } ,
+			  { 11,  8, 12,  0,  5,  2, 15, 13, 10, 14,  3,  6,  7,  1,  9,  4 } ,
+			  {  7,  9,  3,  1, 13, 12, 11, 14,  2,  6,  5, 10,  4,  0, 15,  8 } ,
+			  {  9,  0,  5,  7,  2,  4, 10, 15, 14,  1, 11, 12,  6,  8,  3, 13 } ,
+			  {  2, 12,  6, 10,  0, 11,  8,  3,  4, 13,  7,  5, 15, 14,  1,  9 } ,
+			  { 12,  5,  1, 15, 14, 13,  4, 10,  0,  7,  6,  3,  9,  2,  8, 11 } ,
+			  { 13, 11,  7, 14, 12,  1,  3,  9,  5,  0, 15,  4,  8,  6,  2, 10 } ,
+			  {  6, 15, 14,  9, 11,  3,  0,  8, 12,  2, 13,  7,  1,  4, 10,  5 } ,
+			  { 10,  2,  8,  4,  7,  6,  1,  5, 15, 11,  9, 14,  3, 12, 13 , 0 } ,
+			  {  0,  1,  2,  3,  4,  5,  6,  7,  8,  9, 10, 11, 12, 13, 14, 15 } ,
+			  { 14, 10,  4,  8,  9, 15, 13,  6,  1, 12,  0,  2, 11,  7,  5,  3 }
+			};
+		for (int round = 0; round < 12; round++) {
+			for (int i = 0; i < 4; i++) {
+				SIGMA_GATHER[round][i]      = sigma[round][2 * i];
+				SIGMA_GATHER[round][i + 4]  = sigma[round][2 * i + 1];
+				SIGMA_GATHER[round][i + 8]  = sigma[round][2 * i + 8];
+				SIGMA_GATHER[round][i + 12] = sigma[round][2 * i + 9];
+			}
+		}
+	}
+	
+	private long[] counter = new long[4]; // t0, t1, f0, f1
+	// message words in the order of SIGMA_GATHER for all rounds: 
+	// contiguous loads are faster than gathers
+	private long[] permutedMessage = new long[12 * 16];
+
+	public Blake2bVector() {
+		super();
+	}
+
+	public Blake2bVector(byte[] key) {
+		super(key);
+	}
+
+	public Blake2bVector(
+			byte[] key, 
+			int _digestLength, 
+			byte[] _salt, 
+			byte[] _personalization) {
+		super(key, _digestLength, _salt, _personalization);
+	}
+
+	/**
+	 * Copy constructor: copies the intermediate state
+	 * 
+	 * @param t		the digest to copy
+	 */
+	public Blake2bVector(Blake2b t) {
+		super(t);
+	}
+
+	@Override
+	public Blake2b copy() {
+		return new Blake2bVector(this);
+	}
+
+	/**
+	 * Creates a digest with precomputed parameters
+	 * 
+	 * @param params	the parameters (key, digest length, salt, personalization)
+	 */
+	public Blake2bVector(Blake2bParams params) {
+		super(params);
+	}
+	
+	/**
+	 * @return	true if the platform supports 
+	 * 			256 bit vectors
+	 */
+	public static boolean isSupported() {
+		return SUPPORTED;
+	}
+
+	@Override
+	protected void compress(long[] h, long[] m, long t0, long t1, long f0, long f1) {
+		
+		if (SUPPORTED == false) {
+			super.compress(h, m, t0, t1, f0, f1);
+			return;
+		}
+		// permute the message words for all rounds:
+		for (int round = 0; round < 12; round++) {
+			int[] gather = SIGMA_GATHER[round];
+			int offset = round * 16;
+			for (int i = 0; i < 16; i++) {
+				permutedMessage[offset + i] = m[gather[i]];
+			}
+		}
+		counter[0] = t0;
+		counter[1] = t1;
+		counter[2] = f0;
+		counter[3] = f1;
+		
+		LongVector h0 = LongVector.fromArray(SPECIES, h, 0);
+		LongVector h1 = LongVector.fromArray(SPECIES, h, 4);
+		LongVector a = h0;
+		LongVector b = h1;
+		LongVector c = IV_LOW;
+		LongVector d = IV_HIGH.lanewise(VectorOperators.XOR, 
+				LongVector.fromArray(SPECIES, counter, 0));
+		
+		// The rounds are unrolled: C2 keeps the vectors in 
+		// registers only in straight-line code. 
+		// After the column steps the rows b, c, d are rotated, 
+		// so the diagonals are in the columns (and rotated back 
+		// after the diagonal steps). 
+		
+		// round 0: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 0));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 4));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 0: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 8));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 12));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 1: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 16));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 20));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 1: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 24));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 28));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 2: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 32));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 36));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 2: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 40));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 44));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 3: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 48));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 52));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 3: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 56));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 60));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 4: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 64));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 68));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 4: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 72));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 76));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 5: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 80));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 84));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 5: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 88));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 92));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 6: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 96));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 100));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 6: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 104));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 108));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 7: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 112));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 116));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 7: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 120));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 124));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 8: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 128));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 132));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 8: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 136));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 140));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 9: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 144));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 148));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 9: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 152));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 156));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 10: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 160));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 164));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 10: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 168));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 172));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// round 11: columns
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 176));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 180));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_1);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_3);
+		// round 11: diagonals
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 184));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 32);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 24);
+		a = a.add(b).add(LongVector.fromArray(SPECIES, permutedMessage, 188));
+		d = d.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.ROR, 16);
+		c = c.add(d);
+		b = b.lanewise(VectorOperators.XOR, c).lanewise(VectorOperators.ROR, 63);
+		b = b.rearrange(ROTATE_3);
+		c = c.rearrange(ROTATE_2);
+		d = d.rearrange(ROTATE_1);
+		
+		// update chain values: 
+		h0.lanewise(VectorOperators.XOR, a).lanewise(VectorOperators.XOR, c).intoArray(h, 0);
+		h1.lanewise(VectorOperators.XOR, b).lanewise(VectorOperators.XOR, d).intoArray(h, 4);
+	}
+}
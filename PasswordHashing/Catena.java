@@ -56,6 +56,14 @@ public abstract class Catena implements PasswordHashingScheme {
 	
 	// true = clear the password as soon as possible
 	protected boolean overwrite = false;
+
+	// reused inputs of the garlic hash H(garlic || x):
+	private final byte[] garlicByte = new byte[1];
+	private final Segment garlicSegment = new Segment(garlicByte);
+	private final Segment xSegment = new Segment();
+	// reused inputs of the initial hash H(hv || t || x || pwd || salt):
+	private final Segment[] initialSegments = { 
+			new Segment(), new Segment(), new Segment(), new Segment(), new Segment() };
 	
 	
 	
@@ -194,13 +202,16 @@ public abstract class Catena implements PasswordHashingScheme {
 		digest.reset();
 
 		// Compute the initial value to hash  
-		digest.update(hv);
-		digest.update(t);
-		digest.update(x);
-		digest.update(pwd);
-		digest.update(salt);
-		digest.doFinal(x, 0);
-		digest.reset();
+		initialSegments[0].set(hv);
+		initialSegments[1].set(t);
+		initialSegments[2].set(x);
+		initialSegments[3].set(pwd);
+		initialSegments[4].set(salt);
+		digest.hash(x, 0, initialSegments);
+		// do not keep references to password and salt:
+		for (Segment segment : initialSegments) {
+			segment.set(null);
+		}
 
 		// Overwrite Password if enabled
 		if (overwrite == true) {
@@ -210,6 +221,7 @@ public abstract class Catena implements PasswordHashingScheme {
 		// provide resistance against weak garbage collector attacks:
 		flap(x, lambda, (min_garlic+1)/2, publicInput, x);
 
+		xSegment.set(x);
 		for(c=min_garlic; c <= garlic; c++) {
 			flap(x, lambda, c, publicInput,  x);
 		  	
@@ -217,10 +229,8 @@ public abstract class Catena implements PasswordHashingScheme {
 		    	System.arraycopy(x, 0, hash, 0, hashlen);
 		    	return;
 		    }
-		    digest.update( (byte) c);
-		    digest.update(x);
-		    digest.doFinal(x, 0);	  
-		    digest.reset();
+		    garlicByte[0] = (byte) c;
+		    digest.hash(x, 0, garlicSegment, xSegment);
 		}
 		System.arraycopy(x, 0, hash, 0, hashlen);
 	}
@@ -267,10 +277,8 @@ public abstract class Catena implements PasswordHashingScheme {
 		if (hashlen > hLen){
 			throw new IllegalArgumentException("illegal length of output");
 		}
-		digest.update((byte) garlic);
-		digest.update(x, 0, hLen);
-		digest.doFinal(z, 0);
-		digest.reset();
+		garlicByte[0] = (byte) garlic;
+		digest.hash(z, 0, garlicSegment, xSegment.set(x, 0, hLen));
 		System.arraycopy(z,  0,  hash,  0,  hashlen);
 		Arrays.fill(z,  (byte) 0);
 	}
@@ -298,12 +306,11 @@ public abstract class Catena implements PasswordHashingScheme {
 
 		System.arraycopy(old_hash, 0, x, 0, hashlen);
 
+		xSegment.set(x);
 		for(c=old_garlic+1; c <= new_garlic; c++) {
 		     flap(x, lambda, c, salt, x);
-		     digest.update((byte) c);
-		     digest.update(x);
-		     digest.doFinal(x,  0);
-		     digest.reset();
+		     garlicByte[0] = (byte) c;
+		     digest.hash(x, 0, garlicSegment, xSegment);
 
 		     for(int i= hashlen; i < hLen; i++) {
 		    	 x[i] = (byte) 0;
@@ -459,6 +466,36 @@ public abstract class Catena implements PasswordHashingScheme {
 	    };
 	}
 	
+	/**
+	 * Setup of the constructors for other hash functions 
+	 * of the child classes: the length of the hash values 
+	 * is the output size of the digest.
+	 * 
+	 * @param _digest			the digest
+	 * @param _fastHash			the round-reduced hash function with 
+	 * 							the same output size as the digest, 
+	 * 							or null to use the digest only (full version)
+	 * @param _versionID		the version identifier of the child class
+	 * @param _versionIDFull	the version identifier of the full version
+	 */
+	protected final void initHashFunctions(
+			Digest _digest, FastHash _fastHash, 
+			String _versionID, String _versionIDFull) {
+
+		if (_fastHash != null && _fastHash.getOutputSize() != _digest.getOutputSize()) {
+			throw new IllegalArgumentException("Output size of digest and fast hash must be equal");
+		}
+		setOverwrite(false);
+		setDigest(_digest);
+		setFast(_fastHash != null);
+		if (_fastHash == null) {
+			setVersionID(_versionIDFull);
+		} else {
+			setFastHash(_fastHash);
+			setVersionID(_versionID);
+		}
+	}
+	
 	//====== GETTER & SETTER ======
 	
 	
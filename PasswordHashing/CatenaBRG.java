@@ -28,6 +28,8 @@ import java.util.Arrays;
 
 import cologne.eck.dr.op.crypto.digest.Blake2b;
 import cologne.eck.dr.op.crypto.digest.Blake2b_1;
+import cologne.eck.dr.op.crypto.digest.Digest;
+import cologne.eck.dr.op.crypto.digest.FastHash;
 
 
 public class CatenaBRG extends Catena {
@@ -98,6 +100,23 @@ public class CatenaBRG extends Catena {
 		helper = new CatenaHelper(getDigest(), getFastHash(), isFast());
 	}
 	
+	/**
+	 * Constructor for other hash functions, 
+	 * for example Blake2s and Blake2s_1 for 32-bit platforms: 
+	 * the length of the hash values (and of the nodes 
+	 * of the graph) is the output size of the digest.
+	 * 
+	 * @param _digest		the digest
+	 * @param _fastHash		the round-reduced hash function with 
+	 * 						the same output size as the digest, 
+	 * 						or null to use the digest only (full version)
+	 */
+	public CatenaBRG(Digest _digest, FastHash _fastHash) {
+
+		initHashFunctions(_digest, _fastHash, VERSION_ID, VERSION_ID_FULL);
+		helper = new CatenaHelper(getDigest(), getFastHash(), isFast());
+	}
+	
 	/**
 	 * an optional randomization layer Γ,
 	 * to harden the memory initialization;
@@ -25,6 +25,7 @@ import java.util.Arrays;
 
 import cologne.eck.dr.op.crypto.digest.Digest;
 import cologne.eck.dr.op.crypto.digest.FastHash;
+import cologne.eck.dr.op.crypto.digest.Segment;
 
 
 
@@ -37,6 +38,11 @@ public class CatenaHelper {
 	private int hLen;
 	//private int hLenFast;
 	
+	// reused inputs of the gather hash:
+	private final Segment first = new Segment();
+	private final Segment second = new Segment();
+	private final Segment zeroSegment = new Segment(new byte[1]);
+	
 
 	public CatenaHelper(Digest _digest, FastHash _fastHash, boolean _fast) {
 		digest = _digest;
@@ -98,15 +104,11 @@ public class CatenaHelper {
 
 		byte[] x = new byte[hLen];		
 		
-		digest.update(input1, inIndex1, hLen);
-		digest.update(input2, inIndex2, hLen);
-		digest.doFinal(x, 0);				
-		digest.reset();
+		digest.hash(x, 0, 
+				first.set(input1, inIndex1, hLen), 
+				second.set(input2, inIndex2, hLen));
 		
-		digest.update( (byte) 0);
-		digest.update(x,0, hLen);
-		digest.doFinal(hash, outIndex);		
-		digest.reset();
+		digest.hash(hash, outIndex, zeroSegment, first.set(x, 0, hLen));
 	}	
 
 	/**
@@ -161,10 +163,9 @@ public class CatenaHelper {
 			byte[] input2, int inIndex2, 
 			byte[] hash, int outIndex) {
 		
-		digest.update(input1, inIndex1, hLen);
-		digest.update(input2, inIndex2, hLen);
-		digest.doFinal(hash, outIndex);
-		digest.reset();
+		digest.hash(hash, outIndex, 
+				first.set(input1, inIndex1, hLen), 
+				second.set(input2, inIndex2, hLen));
 	}
 	
 	/**
@@ -243,19 +244,20 @@ public class CatenaHelper {
 		int vertexIndex; 
 		long j; // index of updated word and index for first input
 		long j2; // index of second input
-		byte[] tmp = new byte[hLen];
-		byte[] tmp2 = new byte[hLen];
+		// 1024 bit seed: H(publicInput), H(H(publicInput)), ...
+		// (two hash values for 64 byte digests, four for 32 byte digests)
+		byte[] seed = new byte[(128 + hLen - 1) / hLen * hLen];
 
 		// generate the seed		
 		digest.update(publicInput);
-		digest.doFinal(tmp, 0);
-		digest.reset();
-		//blake2b = new Blake2b();
-		digest.update(tmp);
-		digest.doFinal(tmp2, 0);
+		digest.doFinal(seed, 0);
 		digest.reset();
+		for (int pos = hLen; pos < 128; pos += hLen) {
+			digest.hash(seed, pos, first.set(seed, pos - hLen, hLen));
+		}
 
-		initXSState(tmp, tmp2);
+		initXSState(Arrays.copyOfRange(seed, 0, 64), Arrays.copyOfRange(seed, 64, 128));
+		Arrays.fill(seed, (byte) 0);
 
 		if(fastHash != null)
 		fastHash.reset();
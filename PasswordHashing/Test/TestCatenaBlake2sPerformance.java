@@ -0,0 +1,85 @@
+package cologne.eck.dr.op.crypto.password_hashing.test;
+
+import cologne.eck.dr.op.crypto.digest.Blake2b;
+import cologne.eck.dr.op.crypto.digest.Blake2bReduced;
+import cologne.eck.dr.op.crypto.digest.Blake2b_1;
+import cologne.eck.dr.op.crypto.digest.Blake2s;
+import cologne.eck.dr.op.crypto.digest.Blake2s_1;
+import cologne.eck.dr.op.crypto.password_hashing.Catena;
+import cologne.eck.dr.op.crypto.password_hashing.CatenaBRG;
+
+
+/*
+ * Compares Catena-Dragonfly with Blake2b (64-bit words) and
+ * Blake2s (32-bit words) at equal memory:
+ * the graph has (2^garlic + 2^(garlic-1)) nodes of the output
+ * size of the hash function, so Blake2s uses garlic + 1.
+ * Blake2s should be faster on 32-bit JVMs.
+ * H' of Blake2b is also measured with more rounds (Blake2bReduced).
+ */
+public class TestCatenaBlake2sPerformance {
+
+	private static final byte[] PSW = "password".getBytes();
+	private static final byte[] SALT = "salt".getBytes();
+	private static final byte[] DATA = "data".getBytes();
+
+	private static final int DRAGONFLY_LAMBDA = 2;
+	// garlic for Blake2b, Blake2s uses garlic + 1:
+	private static final int[] GARLICS = { 14, 16, 18 };
+
+	private static final int WARM_UP = 3;
+
+	// rounds of H' (Blake2bReduced):
+	private static final int[] ROUNDS = { 1, 2, 4 };
+
+
+	public static void main(String[] args) {
+
+		System.out.println(
+				"Java version: " + System.getProperty("java.version") + "\n" +
+				"Java VM: " + System.getProperty("java.vm.name") + "\n" +
+				"Operating system architecture: "  + System.getProperty("os.arch") + "\n" +
+				"Data model: " + System.getProperty("sun.arch.data.model") + " bit\n");
+
+		for (int i = 0; i < WARM_UP; i++) {
+			run(new CatenaBRG(new Blake2b(), new Blake2b_1()), GARLICS[0], 64);
+			run(new CatenaBRG(new Blake2s(), new Blake2s_1()), GARLICS[0] + 1, 32);
+			run(new CatenaBRG(new Blake2b(), new Blake2bReduced(2)), GARLICS[0], 64);
+		}
+
+		for (int garlic : GARLICS) {
+			long memory = ((1L << garlic) + (1L << (garlic - 1))) * 64;
+			System.out.println("\nDragonfly, memory " + (memory >> 10) + " KiB");
+
+			long time = run(new CatenaBRG(new Blake2b(), new Blake2b_1()), garlic, 64);
+			System.out.println("Blake2b / Blake2b_1, garlic " + garlic + ": " + time + " ms");
+
+			time = run(new CatenaBRG(new Blake2s(), new Blake2s_1()), garlic + 1, 32);
+			System.out.println("Blake2s / Blake2s_1, garlic " + (garlic + 1) + ": " + time + " ms");
+
+			for (int rounds : ROUNDS) {
+				time = run(new CatenaBRG(new Blake2b(), new Blake2bReduced(rounds)), garlic, 64);
+				System.out.println("Blake2b / " + rounds + " rounds, garlic " + garlic + ": " + time + " ms");
+			}
+
+			time = run(new CatenaBRG(new Blake2b(), null), garlic, 64);
+			System.out.println("Blake2b full, garlic " + garlic + ": " + time + " ms");
+
+			time = run(new CatenaBRG(new Blake2s(), null), garlic + 1, 32);
+			System.out.println("Blake2s full, garlic " + (garlic + 1) + ": " + time + " ms");
+		}
+	}
+
+	// returns the time in ms
+	private static long run(Catena cat, int garlic, int hashLength) {
+
+		byte[] hash = new byte[hashLength];
+		long start = System.currentTimeMillis();
+		cat.hashPassword( PSW, SALT, DATA,
+				DRAGONFLY_LAMBDA,
+				garlic,
+				garlic,
+				 hash);
+		return System.currentTimeMillis() - start;
+	}
+}
@@ -2,6 +2,7 @@ package cologne.eck.dr.op.crypto.password_hashing.test;
 
 import cologne.eck.dr.op.crypto.digest.Blake2b;
 import cologne.eck.dr.op.crypto.digest.Catena_Blake2b_1;
+import cologne.eck.dr.op.crypto.digest.JdkSHA512Digest;
 import cologne.eck.dr.op.crypto.digest.SHA512Digest;
 import cologne.eck.dr.op.crypto.password_hashing.Catena;
 import cologne.eck.dr.op.crypto.password_hashing.CatenaBRG;
@@ -137,9 +138,7 @@ public class TestCatenaPerformance {
 		System.out.println("\n===== SHA512 =====");
 		
 		
-		cat = new CatenaBRG(false);
-		cat.setDigest( new SHA512Digest());
-		cat.setReducedDigest( null);
+		cat = new CatenaBRG(new SHA512Digest(), null);
 		cat.hashPassword( PSW, SALT, DATA, 
 				DRAGONFLY_LAMBDA,
 				DRAGONFLY_FULL_GARLIC,
@@ -149,9 +148,17 @@ public class TestCatenaPerformance {
 		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
 		start = System.currentTimeMillis(); // start timer
 		
-		cat = new CatenaDBG(false);
-		cat.setDigest( new SHA512Digest());
-		cat.setReducedDigest( null);
+		cat = new CatenaBRG(new JdkSHA512Digest(), null);
+		cat.hashPassword( PSW, SALT, DATA, 
+				DRAGONFLY_LAMBDA,
+				DRAGONFLY_FULL_GARLIC,
+				DRAGONFLY_FULL_GARLIC,
+				 hash);
+		System.out.println("\nJDK SHA512, Dragonfly FULL, garlic " + DRAGONFLY_FULL_GARLIC);
+		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
+		start = System.currentTimeMillis(); // start timer
+		
+		cat = new CatenaDBG(new SHA512Digest(), null);
 		cat.hashPassword( PSW, SALT, DATA, 
 				BUTTERFLY_LAMBDA,
 				BUTTERFLY_FULL_GARLIC,
@@ -160,6 +167,16 @@ public class TestCatenaPerformance {
 		System.out.println("\nSHA512, BUTTERFLY FULL, garlic " + BUTTERFLY_FULL_GARLIC);
 		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
 		start = System.currentTimeMillis(); // start timer
+		
+		cat = new CatenaDBG(new JdkSHA512Digest(), null);
+		cat.hashPassword( PSW, SALT, DATA, 
+				BUTTERFLY_LAMBDA,
+				BUTTERFLY_FULL_GARLIC,
+				BUTTERFLY_FULL_GARLIC,
+				 hash);
+		System.out.println("\nJDK SHA512, BUTTERFLY FULL, garlic " + BUTTERFLY_FULL_GARLIC);
+		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
+		start = System.currentTimeMillis(); // start timer
 
 		
 		System.out.println("\n===== key derivation =====");
@@ -191,9 +208,7 @@ public class TestCatenaPerformance {
 		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
 		
 		start = System.currentTimeMillis(); // start timer
-		cat = new CatenaBRG(false);
-		cat.setDigest(new SHA512Digest());
-		cat.setReducedDigest(null);
+		cat = new CatenaBRG(new SHA512Digest(), null);
 		cat.deriveKey(PSW,   
 			       SALT,  
 			       DATA,  
@@ -202,6 +217,17 @@ public class TestCatenaPerformance {
 			       0, key);
 		System.out.println("\nDragonfly KDF with SHA512, garlic "+ DRAGONFLY_FULL_KDF_GARLIC);
 		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
+		start = System.currentTimeMillis(); // start timer
+		
+		cat = new CatenaBRG(new JdkSHA512Digest(), null);
+		cat.deriveKey(PSW,   
+			       SALT,  
+			       DATA,  
+			       DRAGONFLY_FULL_KDF_LAMBDA, DRAGONFLY_FULL_KDF_GARLIC,
+			       DRAGONFLY_FULL_KDF_GARLIC,
+			       0, key);
+		System.out.println("\nDragonfly KDF with JDK SHA512, garlic "+ DRAGONFLY_FULL_KDF_GARLIC);
+		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
 		
 		
 		cat = new CatenaDBG(false);
@@ -230,16 +256,25 @@ public class TestCatenaPerformance {
 		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
 		
 		start = System.currentTimeMillis(); // start timer
-		cat = new CatenaDBG(false);
-		cat.setDigest(new SHA512Digest());
-		cat.setReducedDigest(null);
+		cat = new CatenaDBG(new SHA512Digest(), null);
+		cat.deriveKey(PSW,   
+			       SALT,  
+			       DATA,  
+			       BUTTERFLY_FULL_KDF_LAMBDA, BUTTERFLY_FULL_KDF_GARLIC,
+			       BUTTERFLY_FULL_KDF_GARLIC,
+			       0, key);
+		System.out.println("\nButterfly KDF with SHA512, garlic " + BUTTERFLY_FULL_KDF_GARLIC);
+		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));
+		start = System.currentTimeMillis(); // start timer
+		
+		cat = new CatenaDBG(new JdkSHA512Digest(), null);
 		cat.deriveKey(PSW,   
 			       SALT,  
 			       DATA,  
 			       BUTTERFLY_FULL_KDF_LAMBDA, BUTTERFLY_FULL_KDF_GARLIC,
 			       BUTTERFLY_FULL_KDF_GARLIC,
 			       0, key);
-		System.out.println("\nDragonfly KDF with SHA512, garlic " + BUTTERFLY_FULL_KDF_GARLIC);
+		System.out.println("\nButterfly KDF with JDK SHA512, garlic " + BUTTERFLY_FULL_KDF_GARLIC);
 		System.out.println("time in ms: " + ((System.currentTimeMillis() - start)/1));		
 	}
 }